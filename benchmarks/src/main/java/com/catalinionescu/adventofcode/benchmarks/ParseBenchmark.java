@@ -0,0 +1,16 @@
+package com.catalinionescu.adventofcode.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.catalinionescu.adventofcode.common.Solver;
+
+public class ParseBenchmark extends SolverBenchmark {
+    @Benchmark
+    public Solver parse() throws IOException {
+        Solver solver = newSolver();
+        solver.parse(inputPath());
+        return solver;
+    }
+}
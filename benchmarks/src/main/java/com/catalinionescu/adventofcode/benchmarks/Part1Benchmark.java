@@ -0,0 +1,24 @@
+package com.catalinionescu.adventofcode.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.catalinionescu.adventofcode.common.Solver;
+
+public class Part1Benchmark extends SolverBenchmark {
+    private Solver solver;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+        solver = newSolver();
+        solver.parse(inputPath());
+    }
+
+    @Benchmark
+    public Object part1() {
+        return solver.part1();
+    }
+}
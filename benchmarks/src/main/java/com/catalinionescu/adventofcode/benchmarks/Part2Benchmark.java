@@ -0,0 +1,26 @@
+package com.catalinionescu.adventofcode.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.catalinionescu.adventofcode.common.Solver;
+
+public class Part2Benchmark extends SolverBenchmark {
+    private Solver solver;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+        solver = newSolver();
+        solver.parse(inputPath());
+        // Some days reuse the state part 1 leaves behind
+        solver.part1();
+    }
+
+    @Benchmark
+    public Object part2() {
+        return solver.part2();
+    }
+}
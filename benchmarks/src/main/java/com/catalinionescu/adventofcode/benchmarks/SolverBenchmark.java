@@ -0,0 +1,60 @@
+package com.catalinionescu.adventofcode.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRegistry;
+import com.catalinionescu.adventofcode.generators.InputGenerators;
+
+/**
+ * Common state of the solver benchmarks: which day to run and against which input. Solvers are stateful, so every phase benchmark prepares a fresh solver
+ * before each invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class SolverBenchmark {
+    private static final SolverRegistry REGISTRY = new SolverRegistry(2018);
+    private static final InputGenerators GENERATORS = new InputGenerators(2018);
+
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "15" })
+    protected int day;
+
+    // "puzzle" runs against the checked-in input of the day, "gen:SIZE[:SEED]" against a generated one, e.g. -p input=puzzle,gen:1000000
+    @Param({ InputGenerators.PUZZLE })
+    protected String input;
+
+    private Path inputFile;
+
+    // Generated inputs are written before the first iteration, so that generating them doesn't count against any phase
+    @Setup(Level.Trial)
+    public void prepareInput() throws IOException {
+        inputFile = GENERATORS.resolve(day, input, Paths.get(REGISTRY.info(day).getInputFile()));
+    }
+
+    protected Solver newSolver() {
+        return REGISTRY.create(day);
+    }
+
+    protected Path inputPath() {
+        return inputFile;
+    }
+}
@@ -0,0 +1,254 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Answers computed earlier, stored on local disk. Entries are keyed by year, day and the SHA-256 of the compiled code and the input contents, so an answer
+ * is reused only for the very same input and code, wherever the file lives. Each entry is a small properties file named year-day-hash.properties.
+ */
+public class AnswerCache {
+    private static final String PART1 = "part1";
+    private static final String PART2 = "part2";
+    private static final int HASH_BLOCK_BYTES = 1 << 20;
+
+    private final Path dir;
+
+    /**
+     * Hash of all the compiled code, worked out on first use.
+     */
+    private static class CodeHolder {
+        private static final byte CODE_HASH[] = codeHash();
+    }
+
+    public AnswerCache(Path dir) {
+        this.dir = dir;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Feeds the contents of a file to a digest, a bounded block at a time, so inputs of any size can be hashed.
+     *
+     * @param digest Digest
+     * @param file File
+     * @throws IOException If the file can't be read
+     */
+    private static void update(MessageDigest digest, Path file) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(HASH_BLOCK_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(block) >= 0) {
+                block.flip();
+                digest.update(block);
+                block.clear();
+            }
+        }
+    }
+
+    private static String toHex(byte bytes[]) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hashes the contents of an input file.
+     *
+     * @param input Input file
+     * @return SHA-256 of the contents, as lowercase hex
+     * @throws IOException If the input can't be read
+     */
+    public static String hash(Path input) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, input);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Hashes all the classes this one was loaded with: every class file under the classes directory, in path order and with their paths, or the whole jar.
+     * Solvers rely on nested classes and shared code such as data structures, so a change to any class invalidates every answer.
+     *
+     * @return SHA-256 of the code, or an empty array if its location isn't known
+     */
+    private static byte[] codeHash() {
+        MessageDigest digest = sha256();
+        try {
+            CodeSource source = AnswerCache.class.getProtectionDomain().getCodeSource();
+            if (source == null || source.getLocation() == null) {
+                return new byte[0];
+            }
+
+            Path location = Paths.get(source.getLocation().toURI());
+            if (!Files.isDirectory(location)) {
+                update(digest, location);
+                return digest.digest();
+            }
+
+            List<Path> classes;
+            try (Stream<Path> files = Files.walk(location)) {
+                classes = files.filter(file -> file.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+            }
+            for (Path file : classes) {
+                digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                update(digest, file);
+            }
+            return digest.digest();
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            Log.logWarningMessage("Can't hash the compiled code, cached answers only follow the solver classes: %s", e);
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Hashes the contents of an input file together with the compiled code, so that changing a solver, or anything it relies on, makes earlier answers miss
+     * instead of being served again. The solver class file is hashed as well, read as a resource without loading the class, which covers solvers loaded
+     * from elsewhere than this class.
+     *
+     * @param input Input file
+     * @param solverClass Fully qualified name of the solver class
+     * @return SHA-256 of the code, the solver class and the input contents, as lowercase hex
+     * @throws IOException If the input or the class file can't be read
+     */
+    public static String hash(Path input, String solverClass) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(CodeHolder.CODE_HASH);
+        try (InputStream code = AnswerCache.class.getClassLoader().getResourceAsStream(solverClass.replace('.', '/') + ".class")) {
+            if (code != null) {
+                digest.update(code.readAllBytes());
+            } else {
+                // No class file to go by, e.g. classes generated at runtime: the name at least keeps solvers apart
+                digest.update(solverClass.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        update(digest, input);
+        return toHex(digest.digest());
+    }
+
+    private Path entry(int year, int day, String hash) {
+        return dir.resolve(String.format("%d-%02d-%s.properties", year, day, hash));
+    }
+
+    /**
+     * Looks up the answers for an input.
+     *
+     * @param year Puzzle year
+     * @param day Puzzle day
+     * @param hash Input hash, see {@link #hash(Path, String)}
+     * @return Both answers as { part1, part2 }, or null if they're not cached
+     * @throws IOException If the entry exists but can't be read
+     */
+    public String[] get(int year, int day, String hash) throws IOException {
+        Path file = entry(year, day, hash);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            props.load(reader);
+        }
+
+        String part1 = props.getProperty(PART1);
+        String part2 = props.getProperty(PART2);
+        if (part1 == null || part2 == null) {
+            return null;
+        }
+        return new String[] { part1, part2 };
+    }
+
+    /**
+     * Stores the answers for an input. Answers are stored as their string value; an input with a missing answer isn't cached.
+     *
+     * @param year Puzzle year
+     * @param day Puzzle day
+     * @param hash Input hash, see {@link #hash(Path, String)}
+     * @param part1 Part 1 answer
+     * @param part2 Part 2 answer
+     * @throws IOException If the entry can't be written
+     */
+    public void put(int year, int day, String hash, Object part1, Object part2) throws IOException {
+        if (part1 == null || part2 == null) {
+            return;
+        }
+
+        Properties props = new Properties();
+        props.setProperty(PART1, String.valueOf(part1));
+        props.setProperty(PART2, String.valueOf(part2));
+
+        Files.createDirectories(dir);
+        // Write aside and move in place, so parallel runs never see a half written entry
+        Path tmp = Files.createTempFile(dir, "entry", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            props.store(writer, String.format("%d day %d", year, day));
+        }
+        Files.move(tmp, entry(year, day, hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Removes all the cached answers of a day, whatever the input.
+     *
+     * @param year Puzzle year
+     * @param day Puzzle day
+     * @return Number of entries removed
+     * @throws IOException If the cache can't be cleaned
+     */
+    public int invalidate(int year, int day) throws IOException {
+        return delete(String.format("%d-%02d-*.properties", year, day));
+    }
+
+    /**
+     * Removes all cached answers.
+     *
+     * @return Number of entries removed
+     * @throws IOException If the cache can't be cleaned
+     */
+    public int invalidateAll() throws IOException {
+        return delete("*.properties");
+    }
+
+    private int delete(String glob) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+
+        int count = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : entries) {
+                Files.delete(file);
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,279 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Scans integers and fixed-layout fields straight out of an ASCII byte buffer or a char array, without creating any intermediate objects. The tokenizer
+ * works on a region of its source and keeps a position inside it; the same instance can be pointed at a new region (e.g. the next line) with
+ * {@link #reset(int, int)}, so a whole input can be parsed with a single tokenizer.
+ * <p>
+ * Free-form numbers are found by skipping whatever isn't part of a number, which suits inputs like "#1 @ 551,185: 21x10" or "position=&lt; 52484, -20780&gt;".
+ * Fixed-layout fields are read at an offset from the region start, which suits inputs like "[1518-08-02 23:59]" where a dash is a separator, not a sign.
+ */
+public class AsciiTokenizer {
+    // Largest long divided by 10 and its last digit, to catch overflows while parsing
+    private static final long MAX_LONG_TENTH = Long.MAX_VALUE / 10;
+    private static final int MAX_LONG_LAST_DIGIT = (int) (Long.MAX_VALUE % 10);
+
+    private final ByteBuffer bytes;
+    private final char chars[];
+
+    // Region bounds, end exclusive
+    private int start;
+    private int end;
+    private int pos;
+
+    /**
+     * Creates a tokenizer over a whole byte buffer. Positions are absolute buffer indices; the buffer's own position and limit are never changed.
+     *
+     * @param bytes ASCII input
+     */
+    public AsciiTokenizer(ByteBuffer bytes) {
+        this.bytes = bytes;
+        chars = null;
+        reset(0, bytes.limit());
+    }
+
+    /**
+     * Creates a tokenizer over a whole char array.
+     *
+     * @param chars Input
+     */
+    public AsciiTokenizer(char chars[]) {
+        bytes = null;
+        this.chars = chars;
+        reset(0, chars.length);
+    }
+
+    /**
+     * Points the tokenizer at a new region of its source.
+     *
+     * @param from Region start
+     * @param to Region end, exclusive
+     */
+    public void reset(int from, int to) {
+        start = from;
+        end = to;
+        pos = from;
+    }
+
+    /**
+     * Points the tokenizer at the current line of a cursor walking the same source.
+     *
+     * @param line Line cursor
+     */
+    public void reset(LineCursor line) {
+        reset(line.offset(), line.offset() + line.length());
+    }
+
+    /**
+     * Points the tokenizer at the current line of a line source, for a tokenizer created over the source's buffer.
+     *
+     * @param line Line source
+     */
+    public void reset(LineSource line) {
+        reset(line.offset(), line.offset() + line.length());
+    }
+
+    private int at(int idx) {
+        return bytes != null ? bytes.get(idx) : chars[idx];
+    }
+
+    private static boolean isDigit(int ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    /**
+     * Returns the current position, relative to the region start.
+     *
+     * @return
+     */
+    public int position() {
+        return pos - start;
+    }
+
+    /**
+     * Moves to the given position, relative to the region start.
+     *
+     * @param offset New position
+     */
+    public void position(int offset) {
+        pos = start + offset;
+    }
+
+    /**
+     * Skips a number of characters.
+     *
+     * @param count Characters to skip
+     */
+    public void skip(int count) {
+        pos += count;
+    }
+
+    /**
+     * Returns true if there are characters left in the region.
+     *
+     * @return
+     */
+    public boolean hasRemaining() {
+        return pos < end;
+    }
+
+    /**
+     * Returns the character at the given position relative to the region start, without moving.
+     *
+     * @param offset Position in the region
+     * @return
+     */
+    public char charAt(int offset) {
+        return (char) at(start + offset);
+    }
+
+    /**
+     * Returns the next character and moves past it.
+     *
+     * @return
+     */
+    public char nextChar() {
+        if (pos >= end) {
+            throw new NoSuchElementException("End of input reached");
+        }
+        return (char) at(pos++);
+    }
+
+    /**
+     * Moves past the next occurrence of a character.
+     *
+     * @param ch Character to look for
+     * @return True if the character was found, false if the end of the region was reached
+     */
+    public boolean skipPast(char ch) {
+        while (pos < end) {
+            if (at(pos++) == ch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips to the start of the next number. A '-' directly in front of a digit is taken as a sign when signed is true.
+     *
+     * @param signed Whether to treat '-' as a sign
+     * @return True if there's a number ahead
+     */
+    private boolean skipToNumber(boolean signed) {
+        int ch;
+        while (pos < end) {
+            ch = at(pos);
+            if (isDigit(ch)) {
+                return true;
+            }
+            if (signed && ch == '-' && pos + 1 < end && isDigit(at(pos + 1))) {
+                return true;
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if there's another number ahead, skipping to its start.
+     *
+     * @return
+     */
+    public boolean hasNextInt() {
+        return skipToNumber(true);
+    }
+
+    /**
+     * Skips anything that isn't a number and parses the next, optionally negative, number.
+     *
+     * @return Parsed value
+     * @throws NoSuchElementException If there are no numbers left
+     * @throws NumberFormatException If the number doesn't fit in an int, as with {@link Integer#parseInt(String)}
+     */
+    public int nextInt() {
+        return toInt(nextLong());
+    }
+
+    /**
+     * Same as {@link #nextInt()}, but '-' is treated as a separator, never as a sign.
+     *
+     * @return Parsed value
+     * @throws NoSuchElementException If there are no numbers left
+     * @throws NumberFormatException If the number doesn't fit in an int
+     */
+    public int nextUnsignedInt() {
+        if (!skipToNumber(false)) {
+            throw new NoSuchElementException("No number left in the input");
+        }
+        return toInt(parseDigits());
+    }
+
+    private int toInt(long value) {
+        if (value != (int) value) {
+            throw new NumberFormatException(String.format("Number before %d doesn't fit in an int: %d", pos - start, value));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Skips anything that isn't a number and parses the next, optionally negative, number.
+     *
+     * @return Parsed value
+     * @throws NoSuchElementException If there are no numbers left
+     * @throws NumberFormatException If the number doesn't fit in a long, bar Long.MIN_VALUE
+     */
+    public long nextLong() {
+        if (!skipToNumber(true)) {
+            throw new NoSuchElementException("No number left in the input");
+        }
+
+        if (at(pos) == '-') {
+            pos++;
+            return -parseDigits();
+        }
+        return parseDigits();
+    }
+
+    private long parseDigits() {
+        int numberStart = pos;
+        long result = 0;
+        int ch;
+        while (pos < end) {
+            ch = at(pos);
+            if (!isDigit(ch)) {
+                break;
+            }
+            if (result > MAX_LONG_TENTH || (result == MAX_LONG_TENTH && ch - '0' > MAX_LONG_LAST_DIGIT)) {
+                throw new NumberFormatException(String.format("Number at %d doesn't fit in a long", numberStart - start));
+            }
+            result = result * 10 + (ch - '0');
+            pos++;
+        }
+        return result;
+    }
+
+    /**
+     * Parses a fixed width, unsigned number at the given position relative to the region start. The current position doesn't change.
+     *
+     * @param offset Position of the first digit
+     * @param width Number of digits
+     * @return Parsed value
+     * @throws NumberFormatException If the field holds anything but digits
+     */
+    public int fixedInt(int offset, int width) {
+        int result = 0;
+        int ch;
+        for (int idx = start + offset, last = idx + width; idx < last; idx++) {
+            ch = at(idx);
+            if (!isDigit(ch)) {
+                throw new NumberFormatException(String.format("Not a digit at %d: '%c'", idx - start, (char) ch));
+            }
+            result = result * 10 + (ch - '0');
+        }
+        return result;
+    }
+}
@@ -0,0 +1,323 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.catalinionescu.adventofcode.generators.InputGenerators;
+
+/**
+ * Runs one day against many inputs, e.g. a directory of thousands of generated inputs, and streams one result line per input as soon as it's solved.
+ * <p>
+ * Inputs are either all the regular files under a directory or the files matching a glob such as "inputs/day03/*.txt" or "build/generated-inputs/**.txt"
+ * ("**" crosses directories). They are handed to a fixed pool of workers while the directory tree is still being walked, and the walk waits whenever the
+ * workers are that far behind, so neither the input list nor the results pile up in memory however many inputs there are.
+ * <p>
+ * Each line has the input, whether it was solved, its latency (solver creation, parse and both parts) and per phase wall-clock times in milliseconds, and
+ * the answers or the error. Lines come in the order the inputs finish, not the order they were found.
+ * <p>
+ * Usage: BatchRunner [-j threads] [--format csv|jsonl] [--output file] [--generate count:size] [--stream] day path-or-glob. Threads default to the number of
+ * processors, the format to CSV and the output to stdout, in which case the solvers' own messages and the closing summary are limited to warnings and errors.
+ * --generate first writes count generated inputs of the given size, with seeds 1 to count, to the directory named by the path (see
+ * {@link InputGenerators}), which can't be a glob then.
+ * <p>
+ * --stream only solves part 1, reading each input line by line instead of parsing it whole (see {@link StreamingSolver}), so inputs far bigger than the
+ * heap can be run. Only days with a streaming solver support it.
+ */
+public class BatchRunner {
+    public enum Format {
+        CSV, JSONL
+    }
+
+    private static final String CSV_HEADER = "input,status,latency_ms,parse_ms,part1_ms,part2_ms,part1,part2,error";
+    // Inputs handed to the pool but not finished yet, per worker; the walk blocks beyond that
+    private static final int QUEUED_PER_THREAD = 2;
+
+    private final SolverRegistry registry;
+    private final int day;
+    private final int threads;
+    private final Format format;
+    private final Writer out;
+    private final boolean streaming;
+
+    private final AtomicInteger solved = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    public BatchRunner(SolverRegistry registry, int day, int threads, Format format, Writer out) {
+        this(registry, day, threads, format, out, false);
+    }
+
+    /**
+     * Creates a batch runner.
+     *
+     * @param registry Solver registry
+     * @param day Day to run
+     * @param threads Number of workers
+     * @param format Result format
+     * @param out Where the results go
+     * @param streaming True to only solve part 1, streaming each input (see {@link SolverRunner#stream(int, StreamingSolver, Path)})
+     */
+    public BatchRunner(SolverRegistry registry, int day, int threads, Format format, Writer out, boolean streaming) {
+        if (!registry.hasSolver(day)) {
+            throw new IllegalArgumentException(String.format("No solver found for %d day %d", registry.getYear(), day));
+        }
+        if (streaming && !(registry.create(day) instanceof StreamingSolver)) {
+            throw new IllegalArgumentException(String.format("Day %d can't stream its input", day));
+        }
+
+        this.registry = registry;
+        this.day = day;
+        this.threads = threads;
+        this.format = format;
+        this.out = out;
+        this.streaming = streaming;
+    }
+
+    /**
+     * Lists the inputs named by a directory or a glob, lazily: the stream walks the directory tree as it's consumed and has to be closed.
+     *
+     * @param pathOrGlob Directory, single file or glob
+     * @return Regular files, in the order they're found
+     * @throws IOException If the directory tree can't be walked
+     */
+    public static Stream<Path> inputs(String pathOrGlob) throws IOException {
+        int globStart = firstGlobSegment(pathOrGlob);
+        if (globStart < 0) {
+            Path path = Paths.get(pathOrGlob);
+            return Files.isDirectory(path) ? Files.walk(path).filter(Files::isRegularFile) : Stream.of(path);
+        }
+
+        // Walk from the last directory before the first wildcard, matching what follows it against the relative paths
+        String base = pathOrGlob.substring(0, globStart);
+        Path baseDir = Paths.get(base.isEmpty() ? "." : base);
+        String pattern = pathOrGlob.substring(globStart);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/").length;
+        return Files.walk(baseDir, depth).filter(file -> matcher.matches(baseDir.relativize(file)) && Files.isRegularFile(file));
+    }
+
+    /**
+     * Returns where the path segment holding the first wildcard of a glob starts, or -1 if it has none.
+     *
+     * @param glob Glob
+     * @return
+     */
+    private static int firstGlobSegment(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            if ("*?[{".indexOf(glob.charAt(i)) >= 0) {
+                int slash = glob.lastIndexOf('/', i);
+                return slash + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Solves every input, writing a result line as each one finishes. Returns once all the inputs are done.
+     *
+     * @param inputs Inputs, consumed as they're solved
+     * @return Number of inputs that couldn't be solved
+     * @throws IOException If the results can't be written
+     * @throws InterruptedException If interrupted while waiting for the workers
+     */
+    public int run(Iterator<Path> inputs) throws IOException, InterruptedException {
+        if (format == Format.CSV) {
+            write(CSV_HEADER);
+        }
+
+        long start = System.nanoTime();
+        Semaphore slots = new Semaphore(threads * QUEUED_PER_THREAD);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            while (inputs.hasNext()) {
+                Path input = inputs.next();
+                slots.acquire();
+                pool.execute(() -> {
+                    try {
+                        solve(input);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            out.flush();
+        }
+
+        int count = solved.get() + failed.get();
+        Log.logInfoMessage("Batch of %d inputs (%d failed) took %.3f ms, mean latency %.3f ms, max latency %.3f ms", count, failed.get(), millis(System
+                .nanoTime() - start), count == 0 ? 0.0 : millis(totalLatency.get() / count), millis(maxLatency.get()));
+        return failed.get();
+    }
+
+    private void solve(Path input) {
+        SolverResult result;
+        long start = System.nanoTime();
+        try {
+            Solver solver = registry.create(day);
+            result = streaming ? SolverRunner.stream(day, (StreamingSolver) solver, input) : SolverRunner.run(day, solver, input);
+        } catch (IOException | RuntimeException | Error e) {
+            // Errors too, e.g. a stack overflow on a deep input: the input still gets its failure line and the worker goes on with the next one
+            result = new SolverResult(day);
+            result.setError(e);
+        }
+        long latency = System.nanoTime() - start;
+
+        (result.getError() == null ? solved : failed).incrementAndGet();
+        totalLatency.addAndGet(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+
+        try {
+            write(format == Format.CSV ? toCsv(input, result, latency) : toJson(input, result, latency));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void write(String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        // Flushed per line, so results can be tailed while the batch runs
+        out.flush();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String field = String.valueOf(value);
+        if (field.chars().anyMatch(ch -> ch == ',' || ch == '"' || ch == '\n' || ch == '\r')) {
+            return '"' + field.replace("\"", "\"\"") + '"';
+        }
+        return field;
+    }
+
+    private static String toCsv(Path input, SolverResult result, long latency) {
+        boolean ok = result.getError() == null;
+        return String.join(",", csvField(input), ok ? "ok" : "error", String.format("%.3f", millis(latency)), String.format("%.3f", millis(result.getWallNanos(
+            Phase.PARSE))), String.format("%.3f", millis(result.getWallNanos(Phase.PART1))), String.format("%.3f", millis(result.getWallNanos(Phase.PART2))),
+            csvField(result.getPart1()), csvField(result.getPart2()), ok ? "" : csvField(result.getError().toString()));
+    }
+
+    private static String toJson(Path input, SolverResult result, long latency) {
+        StringBuilder sb = new StringBuilder("{\"input\":").append(Json.quote(input.toString()));
+        sb.append(",\"status\":").append(result.getError() == null ? "\"ok\"" : "\"error\"");
+        sb.append(String.format(",\"latencyMillis\":%.3f", millis(latency)));
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format(",\"%sMillis\":%.3f", phase.name().toLowerCase(), millis(result.getWallNanos(phase))));
+        }
+        if (result.getError() != null) {
+            sb.append(",\"error\":").append(Json.quote(result.getError().toString()));
+        } else {
+            sb.append(",\"part1\":").append(Json.answer(result.getPart1()));
+            sb.append(",\"part2\":").append(Json.answer(result.getPart2()));
+        }
+        return sb.append('}').toString();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Format format = Format.CSV;
+        Path outputFile = null;
+        String generate = null;
+        Integer day = null;
+        String pathOrGlob = null;
+        boolean streaming = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-j":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--format":
+                    format = Format.valueOf(args[++i].toUpperCase());
+                    break;
+                case "--output":
+                    outputFile = Paths.get(args[++i]);
+                    break;
+                case "--generate":
+                    generate = args[++i];
+                    break;
+                case "--stream":
+                    streaming = true;
+                    break;
+                default:
+                    if (day == null) {
+                        day = Integer.parseInt(args[i]);
+                    } else {
+                        pathOrGlob = args[i];
+                    }
+                    break;
+            }
+        }
+        if (day == null || pathOrGlob == null) {
+            Log.logErrorMessage("Usage: BatchRunner [-j threads] [--format csv|jsonl] [--output file] [--generate count:size] [--stream] day path-or-glob");
+            return;
+        }
+
+        if (generate != null && firstGlobSegment(pathOrGlob) >= 0) {
+            Log.logErrorMessage("--generate needs a directory to write the inputs to, not a glob: %s", pathOrGlob);
+            return;
+        }
+
+        SolverRegistry registry = new SolverRegistry(SolverRunner.DEFAULT_YEAR);
+        if (generate != null) {
+            String parts[] = generate.split(":");
+            int count = Integer.parseInt(parts[0]);
+            int size = Integer.parseInt(parts[1]);
+            InputGenerators generators = new InputGenerators(registry.getYear());
+            Path dir = Paths.get(pathOrGlob);
+            for (int seed = 1; seed <= count; seed++) {
+                generators.generate(day, size, seed, dir.resolve(String.format("day%02d-%d-%d.txt", day, size, seed)));
+            }
+            Log.logInfoMessage("Generated %d inputs in %s", count, dir);
+        }
+
+        if (outputFile == null && Log.isEnabled(Log.Level.INFO)) {
+            // The results go to stdout, keep the solvers' chatter out of them
+            Log.setLevel(Log.Level.WARN);
+        }
+
+        int failures;
+        Writer out = outputFile == null ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) : Files.newBufferedWriter(outputFile);
+        try (Stream<Path> inputs = inputs(pathOrGlob)) {
+            failures = new BatchRunner(registry, day, threads, format, out, streaming).run(inputs.iterator());
+        } finally {
+            // Leave stdout open for the log
+            if (outputFile != null) {
+                out.close();
+            }
+        }
+        Log.flush();
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
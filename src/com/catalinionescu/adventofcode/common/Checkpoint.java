@@ -0,0 +1,198 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshots of a long running simulation, written every so many steps so a killed run can pick up where it was instead of starting over.
+ * <p>
+ * Checkpoints are off unless the "aoc.checkpoint.dir" system property names a directory. Snapshots are written there every "aoc.checkpoint.interval" steps
+ * (each simulation has its own default and its own idea of a step), a run resumes from the snapshot it finds there, and the snapshot is removed once the
+ * simulation completes.
+ * <p>
+ * A snapshot file holds a magic number, a format version and the fingerprint of what's being simulated, then the state as written by the solver and the
+ * CRC-32 of that state. A snapshot of another input, of another version or a damaged one is ignored and the simulation starts from the beginning.
+ */
+public class Checkpoint {
+    /**
+     * Writes the state of a simulation.
+     */
+    @FunctionalInterface
+    public interface StateWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private static final int MAGIC = 0x414F4353; // AOCS
+    private static final short VERSION = 1;
+    // Magic, version and fingerprint
+    private static final int HEADER_SIZE = 4 + 2 + 8;
+    private static final int TRAILER_SIZE = 4;
+
+    private final String name;
+    private final long fingerprint;
+    private final Path file;
+    private final long interval;
+
+    private Checkpoint(String name, long fingerprint, Path dir, long interval) {
+        this.name = name;
+        this.fingerprint = fingerprint;
+        this.file = dir == null ? null : dir.resolve(String.format("%s-%016x.snap", name, fingerprint));
+        this.interval = interval;
+    }
+
+    /**
+     * Opens the checkpoint of a simulation, as configured by the system properties.
+     *
+     * @param name Simulation name, e.g. "day09-part2"; used in the snapshot file name
+     * @param fingerprint Fingerprint of the simulated input, so a snapshot is only resumed for the same input
+     * @param defaultInterval Steps between snapshots, unless set by "aoc.checkpoint.interval"
+     * @return Checkpoint, disabled if no checkpoint directory is set
+     */
+    public static Checkpoint open(String name, long fingerprint, long defaultInterval) {
+        String dir = System.getProperty("aoc.checkpoint.dir");
+        long interval = Long.getLong("aoc.checkpoint.interval", defaultInterval);
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        return new Checkpoint(name, fingerprint, dir == null || dir.isEmpty() ? null : Paths.get(dir), interval);
+    }
+
+    /**
+     * Fingerprints some lines of text, e.g. a parsed input, with 64 bit FNV-1a.
+     *
+     * @param lines Lines
+     * @return Fingerprint
+     */
+    public static long fingerprint(Iterable<? extends CharSequence> lines) {
+        long hash = 0xcbf29ce484222325L;
+        for (CharSequence line : lines) {
+            for (int i = 0; i < line.length(); i++) {
+                hash = (hash ^ line.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ '\n') * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Returns the step at which the next snapshot is due, so simulations only compare their step counter in their main loop.
+     *
+     * @param step Current step
+     * @return Next snapshot step, or Long.MAX_VALUE if checkpoints are off
+     */
+    public long next(long step) {
+        return isEnabled() ? step + interval : Long.MAX_VALUE;
+    }
+
+    /**
+     * Reads the snapshot to resume from. The state has been checked against its CRC, so a reader doesn't have to deal with damaged data.
+     *
+     * @return State as written by the last {@link #save(StateWriter)}, or null to start from the beginning
+     */
+    public DataInput resume() {
+        if (!isEnabled() || !Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            byte snapshot[] = Files.readAllBytes(file);
+            if (snapshot.length < HEADER_SIZE + TRAILER_SIZE) {
+                Log.logWarningMessage("Ignoring truncated snapshot %s", file);
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION || buffer.getLong() != fingerprint) {
+                Log.logWarningMessage("Ignoring snapshot %s of another input or version", file);
+                return null;
+            }
+
+            int stateSize = snapshot.length - HEADER_SIZE - TRAILER_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(snapshot, HEADER_SIZE, stateSize);
+            if ((int) crc.getValue() != buffer.getInt(HEADER_SIZE + stateSize)) {
+                Log.logWarningMessage("Ignoring damaged snapshot %s", file);
+                return null;
+            }
+
+            Log.logInfoMessage("Resuming %s from %s", name, file);
+            return new DataInputStream(new ByteArrayInputStream(snapshot, HEADER_SIZE, stateSize));
+        } catch (IOException e) {
+            Log.logWarningMessage("Can't read snapshot %s: %s", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot, replacing the previous one. A snapshot that can't be written is logged and skipped; the simulation goes on either way.
+     *
+     * @param writer Writes the state
+     */
+    public void save(StateWriter writer) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Path tmp = null;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            // Write aside and move in place, so a run killed while saving still has the previous snapshot
+            tmp = Files.createTempFile(parent, name, ".tmp");
+            CRC32 crc = new CRC32();
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                DataOutputStream header = new DataOutputStream(stream);
+                header.writeInt(MAGIC);
+                header.writeShort(VERSION);
+                header.writeLong(fingerprint);
+
+                DataOutputStream state = new DataOutputStream(new CheckedOutputStream(stream, crc));
+                writer.write(state);
+                state.flush();
+                header.writeInt((int) crc.getValue());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Log.logWarningMessage("Can't write snapshot %s: %s", file, e);
+            try {
+                if (tmp != null) {
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException ignored) {
+                // Nothing more to do about it
+            }
+        }
+    }
+
+    /**
+     * Removes the snapshot once the simulation is done, so the next run starts from the beginning.
+     */
+    public void finish() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Log.logWarningMessage("Can't remove snapshot %s: %s", file, e);
+        }
+    }
+}
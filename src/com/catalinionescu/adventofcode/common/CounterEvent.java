@@ -0,0 +1,26 @@
+package com.catalinionescu.adventofcode.common;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event with the current value of a {@link Metrics} counter, emitted every second for every counter while a recording is active.
+ */
+@Name("com.catalinionescu.adventofcode.Counter")
+@Label("Counter")
+@Category("Advent of Code")
+@Description("Current value of a solver counter")
+@Period("1 s")
+@StackTrace(false)
+public class CounterEvent extends Event {
+    @Label("Name")
+    String name;
+
+    @Label("Value")
+    long value;
+}
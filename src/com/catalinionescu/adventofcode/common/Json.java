@@ -0,0 +1,57 @@
+package com.catalinionescu.adventofcode.common;
+
+/**
+ * The bits of JSON writing shared by the tools that report in JSON.
+ */
+final class Json {
+    private Json() {
+    }
+
+    /**
+     * Writes an answer as a JSON string literal, or as null if there's no answer.
+     *
+     * @param answer Answer, or null
+     * @return JSON value
+     */
+    static String answer(Object answer) {
+        return answer == null ? "null" : quote(String.valueOf(answer));
+    }
+
+    /**
+     * Quotes a string as a JSON string literal, escaping what needs to be escaped.
+     *
+     * @param value String
+     * @return Quoted string
+     */
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+                    break;
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Walks the lines of an ASCII buffer without creating a String per line. The cursor points at one line at a time; all positions taken and returned by its
+ * methods are relative to the start of the current line. Pair it with an {@link AsciiTokenizer} to parse the content of a line. Line terminators ("\n" or
+ * "\r\n") are not part of the line. As with Files.readAllLines(), a terminator at the very end of the input doesn't start an extra empty line.
+ */
+public class LineCursor {
+    private final ByteBuffer buffer;
+    private final int limit;
+    // Start of the next line
+    private int next = 0;
+    // Current line bounds, end exclusive
+    private int start = 0;
+    private int end = 0;
+
+    public LineCursor(ByteBuffer buffer) {
+        this.buffer = buffer;
+        limit = buffer.limit();
+    }
+
+    /**
+     * Advances to the next line.
+     * 
+     * @return True if there is a next line, false if the end of the input has been reached
+     */
+    public boolean next() {
+        if (next >= limit) {
+            return false;
+        }
+
+        start = next;
+        int pos = start;
+        while (pos < limit && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        next = pos + 1;
+
+        if (pos > start && buffer.get(pos - 1) == '\r') {
+            pos--;
+        }
+        end = pos;
+
+        return true;
+    }
+
+    /**
+     * Returns the length of the current line.
+     * 
+     * @return
+     */
+    public int length() {
+        return end - start;
+    }
+
+    /**
+     * Returns true if the current line is empty.
+     * 
+     * @return
+     */
+    public boolean isEmpty() {
+        return end == start;
+    }
+
+    /**
+     * Returns the absolute position of the current line in the input.
+     * 
+     * @return
+     */
+    public int offset() {
+        return start;
+    }
+
+    /**
+     * Returns the character at the given position of the current line.
+     * 
+     * @param pos Position in the line
+     * @return
+     */
+    public char charAt(int pos) {
+        return (char) buffer.get(start + pos);
+    }
+
+    /**
+     * Returns the position of the first occurrence of a character in the current line, starting at the given position.
+     * 
+     * @param ch Character to look for
+     * @param from Position to start at
+     * @return Position of the character, or -1 if not found
+     */
+    public int indexOf(char ch, int from) {
+        for (int pos = start + from; pos < end; pos++) {
+            if (buffer.get(pos) == ch) {
+                return pos - start;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Copies the current line into a String. This allocates, so it's meant for diagnostics and answers rather than parsing.
+     */
+    @Override
+    public String toString() {
+        char chars[] = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) buffer.get(start + i);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,223 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines of an ASCII input one at a time through a fixed size window, for solvers that only need one pass over their input. Unlike
+ * {@link MappedInput} and Files.readAllLines() the input is never held in memory as a whole, so memory use doesn't grow with the input size.
+ * <p>
+ * The source is pulled: nothing is read until the consumer asks for the next line, and the window is only refilled once its lines have all been consumed,
+ * so a slow consumer slows the reading down instead of letting lines pile up. The current line stays valid until the next call to {@link #next()}; it
+ * behaves like a {@link LineCursor} line (positions are relative to the start of the line, terminators aren't part of it, a terminator at the very end
+ * doesn't start an extra empty line) and can be parsed with an {@link AsciiTokenizer} created over {@link #buffer()}.
+ * <p>
+ * A line has to fit in the window; a longer one is an error rather than a reason to grow, which would break the tokenizers already pointed at the window.
+ */
+public class LineSource implements Closeable {
+    public static final int DEFAULT_WINDOW = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer window;
+    // End of the bytes read into the window
+    private int limit = 0;
+    private boolean eof = false;
+    // Start of the next line
+    private int next = 0;
+    // Current line bounds, end exclusive
+    private int start = 0;
+    private int end = 0;
+    private long lineNumber = 0;
+
+    /**
+     * Creates a source reading a channel. The source takes ownership of the channel and closes it when closed.
+     *
+     * @param channel Input
+     * @param windowSize Window size in bytes, the longest line allowed
+     */
+    public LineSource(ReadableByteChannel channel, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+
+        this.channel = channel;
+        window = ByteBuffer.allocate(windowSize);
+    }
+
+    /**
+     * Opens an input file with the default window size.
+     *
+     * @param path Input file
+     * @return Line source, to be closed by the caller
+     * @throws IOException If the file can't be opened
+     */
+    public static LineSource open(Path path) throws IOException {
+        return open(path, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Opens an input file.
+     *
+     * @param path Input file
+     * @param windowSize Window size in bytes, the longest line allowed
+     * @return Line source, to be closed by the caller
+     * @throws IOException If the file can't be opened
+     */
+    public static LineSource open(Path path, int windowSize) throws IOException {
+        return new LineSource(FileChannel.open(path, StandardOpenOption.READ), windowSize);
+    }
+
+    /**
+     * Moves the unconsumed bytes to the start of the window and reads more after them.
+     *
+     * @return True if anything was read, false at the end of the input or if the window is full
+     * @throws IOException If the input can't be read
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+
+        if (next > 0) {
+            window.limit(limit).position(next);
+            window.compact();
+            limit -= next;
+            next = 0;
+        }
+        if (limit == window.capacity()) {
+            return false;
+        }
+
+        window.limit(window.capacity()).position(limit);
+        int read;
+        do {
+            read = channel.read(window);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Advances to the next line, reading more of the input if needed.
+     *
+     * @return True if there is a next line, false if the end of the input has been reached
+     * @throws IOException If the input can't be read, or the line doesn't fit in the window
+     */
+    public boolean next() throws IOException {
+        int pos = next;
+        while (true) {
+            while (pos < limit && window.get(pos) != '\n') {
+                pos++;
+            }
+            if (pos < limit) {
+                break;
+            }
+
+            // The line runs past what's been read so far
+            int scanned = pos - next;
+            if (!fill()) {
+                if (!eof) {
+                    throw new IOException(String.format("Line %d is longer than %d bytes", lineNumber + 1, window.capacity()));
+                }
+                if (next >= limit) {
+                    return false;
+                }
+                // Last line, without a terminator
+                pos = limit;
+                break;
+            }
+            pos = next + scanned;
+        }
+
+        start = next;
+        next = pos + 1;
+        if (pos > start && window.get(pos - 1) == '\r') {
+            pos--;
+        }
+        end = pos;
+        lineNumber++;
+
+        return true;
+    }
+
+    /**
+     * Returns the number of the current line, starting at 1.
+     *
+     * @return
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the length of the current line.
+     *
+     * @return
+     */
+    public int length() {
+        return end - start;
+    }
+
+    /**
+     * Returns true if the current line is empty.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return end == start;
+    }
+
+    /**
+     * Returns the position of the current line in the window, for tokenizers working on {@link #buffer()}.
+     *
+     * @return
+     */
+    public int offset() {
+        return start;
+    }
+
+    /**
+     * Returns the character at the given position of the current line.
+     *
+     * @param pos Position in the line
+     * @return
+     */
+    public char charAt(int pos) {
+        return (char) window.get(start + pos);
+    }
+
+    /**
+     * Returns a read-only view of the window. The view follows the window as it's refilled, so a tokenizer created over it once can parse every line.
+     *
+     * @return
+     */
+    public ByteBuffer buffer() {
+        return window.asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the current line into a String. This allocates, so it's meant for diagnostics and answers rather than parsing.
+     */
+    @Override
+    public String toString() {
+        char chars[] = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) window.get(start + i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,27 +1,213 @@
 package com.catalinionescu.adventofcode.common;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Console logging with levels that can be switched at runtime.
+ * <p>
+ * A message below the current level costs a single volatile read. Messages are formatted only once they're known to be printed and, in asynchronous mode
+ * (the default), formatting and printing happen on a background writer thread fed through a bounded ring buffer, so the logging thread only pays for queuing
+ * the message. Arguments must not be changed after they're logged. Hot loops should still check {@link #isDebugEnabled()} before logging, to avoid boxing
+ * the arguments for nothing.
+ * <p>
+ * The initial level and mode are read from the "aoc.log.level" (DEBUG, INFO, WARN, ERROR or OFF, INFO by default) and "aoc.log.async" (true by default)
+ * system properties.
+ */
 public class Log {
-    public static void logInfoMessage(final String msg, final Object... args) {
-        if (args == null || args.length == 0) {
-            System.out.println(String.format("[INFO] %s", msg));
-        } else {
-            System.out.println(String.format("[INFO] %s", String.format(msg, args)));
+    public enum Level {
+        DEBUG("[DEBUG] "),
+        INFO("[INFO] "),
+        WARN("[WARN] "),
+        ERROR("[ERROR] "),
+        OFF("");
+
+        private final String prefix;
+
+        Level(String prefix) {
+            this.prefix = prefix;
         }
     }
 
-    public static void logErrorMessage(final String msg, final Object... args) {
-        if (args == null || args.length == 0) {
-            System.out.println(String.format("[ERROR] %s", msg));
-        } else {
-            System.out.println(String.format("[ERROR] %s", String.format(msg, args)));
+    private static class Entry {
+        private final Level level;
+        private final String msg;
+        private final Object args[];
+
+        Entry(Level level, String msg, Object args[]) {
+            this.level = level;
+            this.msg = msg;
+            this.args = args;
+        }
+    }
+
+    private static final int RING_SIZE = 8192;
+
+    private static volatile Level level = parseLevel(System.getProperty("aoc.log.level"));
+    private static final boolean ASYNC = Boolean.parseBoolean(System.getProperty("aoc.log.async", "true"));
+
+    private static final BlockingQueue<Entry> ring = new ArrayBlockingQueue<>(RING_SIZE);
+    // Entries queued and entries printed so far, used by flush() to know when the writer caught up
+    private static final AtomicLong queued = new AtomicLong();
+    private static long written = 0;
+    private static final Object progress = new Object();
+
+    static {
+        if (ASYNC) {
+            Thread writer = new Thread(Log::drain, "log-writer");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
         }
     }
 
+    /**
+     * Reads the initial level from the system property. An unknown value falls back to INFO rather than failing, since that would break every class that
+     * logs; stderr says so, as the log itself can't be trusted yet.
+     *
+     * @param value Property value, or null if not set
+     * @return
+     */
+    private static Level parseLevel(String value) {
+        if (value == null) {
+            return Level.INFO;
+        }
+
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.printf("Unknown log level \"%s\" in aoc.log.level, expected one of %s; using INFO%n", value, Arrays.toString(Level.values()));
+            return Level.INFO;
+        }
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Returns true if messages of the given level are currently printed.
+     *
+     * @param msgLevel Message level
+     * @return
+     */
+    public static boolean isEnabled(Level msgLevel) {
+        return msgLevel.compareTo(level) >= 0;
+    }
+
+    public static boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public static void logDebugMessage(final String msg, final Object... args) {
+        log(Level.DEBUG, msg, args);
+    }
+
+    public static void logInfoMessage(final String msg, final Object... args) {
+        log(Level.INFO, msg, args);
+    }
+
+    public static void logErrorMessage(final String msg, final Object... args) {
+        log(Level.ERROR, msg, args);
+    }
+
     public static void logWarningMessage(final String msg, final Object... args) {
-        if (args == null || args.length == 0) {
-            System.out.println(String.format("[WARN] %s", msg));
-        } else {
-            System.out.println(String.format("[WARN] %s", String.format(msg, args)));
+        log(Level.WARN, msg, args);
+    }
+
+    private static void log(Level msgLevel, String msg, Object args[]) {
+        if (!isEnabled(msgLevel)) {
+            return;
+        }
+
+        if (!ASYNC) {
+            System.out.println(format(new Entry(msgLevel, msg, args)));
+            return;
+        }
+
+        queued.incrementAndGet();
+        try {
+            // Blocks while the ring is full, so nothing gets lost when logging outpaces the console
+            ring.put(new Entry(msgLevel, msg, args));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued.decrementAndGet();
+        }
+    }
+
+    private static String format(Entry entry) {
+        if (entry.args == null || entry.args.length == 0) {
+            return entry.level.prefix + entry.msg;
+        }
+        try {
+            return entry.level.prefix + String.format(entry.msg, entry.args);
+        } catch (IllegalFormatException e) {
+            // A bad message must not take down the writer thread
+            return entry.level.prefix + entry.msg + " " + Arrays.toString(entry.args);
+        } catch (RuntimeException e) {
+            // Nor an argument whose toString() throws, which would then leave log() blocked on a full ring and flush() waiting forever. The arguments
+            // can't be printed either, as that calls toString() again
+            return entry.level.prefix + entry.msg + " (arguments could not be formatted: " + e.getClass().getName() + ")";
+        }
+    }
+
+    /**
+     * Writer thread loop: takes whatever is in the ring and prints it with a single write.
+     */
+    private static void drain() {
+        List<Entry> batch = new ArrayList<>(RING_SIZE);
+        StringBuilder sb = new StringBuilder();
+        String newLine = System.lineSeparator();
+        while (true) {
+            try {
+                batch.add(ring.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            ring.drainTo(batch);
+
+            sb.setLength(0);
+            for (Entry entry : batch) {
+                sb.append(format(entry)).append(newLine);
+            }
+            System.out.print(sb);
+            System.out.flush();
+
+            synchronized (progress) {
+                written += batch.size();
+                progress.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Waits until all messages logged so far have been printed. Does nothing in synchronous mode.
+     */
+    public static void flush() {
+        if (!ASYNC) {
+            return;
+        }
+
+        synchronized (progress) {
+            while (written < queued.get()) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
         }
     }
 }
@@ -0,0 +1,103 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Puzzle input memory-mapped straight from disk. Puzzle inputs are plain ASCII, so bytes are read as characters and nothing gets decoded or copied up front;
+ * the OS pages the file in as it's being read.
+ */
+public class MappedInput {
+    private final ByteBuffer buffer;
+
+    private MappedInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a whole input file in memory, read-only.
+     * 
+     * @param path Input file
+     * @return Mapped input
+     * @throws IOException If the file can't be read, or is larger than 2 GB
+     */
+    public static MappedInput map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Input %s is too large to map: %d bytes", path, size));
+            }
+
+            // The mapping stays valid after the channel is closed
+            return new MappedInput(channel.map(MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Maps part of an open input file in memory, read-only, e.g. to split an input too large for a single mapping between several threads. The mapping
+     * stays valid after the channel is closed.
+     * 
+     * @param channel Input file
+     * @param position Start of the part, in bytes
+     * @param size Size of the part, in bytes
+     * @return Mapped part; positions in it are relative to its start
+     * @throws IOException If the file can't be read, or the part is larger than 2 GB
+     */
+    public static MappedInput map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Input part at %d is too large to map: %d bytes", position, size));
+        }
+
+        return new MappedInput(channel.map(MapMode.READ_ONLY, position, size));
+    }
+
+    /**
+     * Returns the input size in bytes.
+     * 
+     * @return
+     */
+    public int size() {
+        return buffer.limit();
+    }
+
+    /**
+     * Returns true if the input has no content at all.
+     * 
+     * @return
+     */
+    public boolean isEmpty() {
+        return buffer.limit() == 0;
+    }
+
+    /**
+     * Returns the character at the given absolute position.
+     * 
+     * @param pos Position in the input
+     * @return
+     */
+    public char charAt(int pos) {
+        return (char) buffer.get(pos);
+    }
+
+    /**
+     * Returns a read-only view of the whole input. The view has its own position and limit, so callers can't disturb each other.
+     * 
+     * @return
+     */
+    public ByteBuffer buffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a new cursor positioned before the first line of the input.
+     * 
+     * @return
+     */
+    public LineCursor lines() {
+        return new LineCursor(buffer);
+    }
+}
@@ -0,0 +1,160 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads the memory figures the runner samples around each phase: bytes allocated by the current thread, peak heap use and garbage collections.
+ * <p>
+ * Allocations are counted per thread, so they belong to the solver running on it even when several days run at once. Peak heap and collections are
+ * JVM-wide: with days running in parallel collections cover whatever else ran at the same time, and only a run with one thread pins them on a single day.
+ * Peaks can only be measured by resetting them, which would cut short the measurement of any other phase running at the time, so a peak is only taken for
+ * a phase that ran alone from start to end and is unknown otherwise.
+ * <p>
+ * Heap in use includes garbage nobody collected yet, so on its own the peak also counts what earlier phases left behind. Setting the
+ * "aoc.memory.footprint" system property to true collects garbage before each phase, which makes peaks start from live data only, and after each phase,
+ * which tells how much the solver still holds. The collections happen outside the timed part of the phases but do slow the run down.
+ */
+final class MemoryProbe {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = new ArrayList<>();
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+    private static final boolean FOOTPRINT = Boolean.getBoolean("aoc.memory.footprint");
+    // Phases measuring their peak heap right now, and phases that ever started one
+    private static final AtomicInteger PHASES_RUNNING = new AtomicInteger();
+    private static final AtomicLong PHASES_STARTED = new AtomicLong();
+
+    static {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                HEAP_POOLS.add(pool);
+            }
+        }
+    }
+
+    private MemoryProbe() {
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread, or -1 if the JVM can't tell.
+     *
+     * @return
+     */
+    static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if phases should be surrounded by collections, see "aoc.memory.footprint".
+     *
+     * @return
+     */
+    static boolean isFootprintEnabled() {
+        return FOOTPRINT;
+    }
+
+    /**
+     * Collects garbage and returns the heap still in use afterwards, i.e. the live data. Slow, it's a full collection.
+     *
+     * @return Bytes
+     */
+    static long liveHeapBytes() {
+        System.gc();
+        long result = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            result += pool.getUsage().getUsed();
+        }
+        return result;
+    }
+
+    /**
+     * Starts a peak heap measurement for a phase about to run. The pool peaks are only reset if no other phase is running.
+     *
+     * @return Token for {@link #endPeakHeap(long)}
+     */
+    static long startPeakHeap() {
+        long token = PHASES_STARTED.incrementAndGet();
+        if (PHASES_RUNNING.incrementAndGet() > 1) {
+            return -1;
+        }
+
+        resetPeakHeap();
+        return token;
+    }
+
+    /**
+     * Ends the peak heap measurement of a phase.
+     *
+     * @param token Token returned by {@link #startPeakHeap()} when the phase started
+     * @return Most heap used while the phase ran, in bytes, or -1 if another phase ran at some point in the meantime
+     */
+    static long endPeakHeap(long token) {
+        // No other phase started since this one did, and none was running when it did
+        long peak = token > 0 && PHASES_STARTED.get() == token ? peakHeapBytes() : -1;
+        PHASES_RUNNING.decrementAndGet();
+        return peak;
+    }
+
+    /**
+     * Starts a new peak heap measurement.
+     */
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Returns the most heap used since the last {@link #resetPeakHeap()}. Each pool peaks on its own, so this is the sum of the pool peaks: an upper bound
+     * of the heap actually in use at any one time.
+     *
+     * @return Bytes
+     */
+    private static long peakHeapBytes() {
+        long result = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            MemoryUsage peak = pool.getPeakUsage();
+            if (peak != null) {
+                result += peak.getUsed();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of collections run so far, all collectors together.
+     *
+     * @return
+     */
+    static long gcCount() {
+        long result = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            result += Math.max(0, collector.getCollectionCount());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time spent collecting so far, all collectors together.
+     *
+     * @return Milliseconds
+     */
+    static long gcMillis() {
+        long result = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            result += Math.max(0, collector.getCollectionTime());
+        }
+        return result;
+    }
+}
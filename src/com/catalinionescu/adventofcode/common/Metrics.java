@@ -0,0 +1,98 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Named counters for what solvers do in their hot loops (iterations, ticks, generations...), plus the phase timings the runner records. Counters are cheap
+ * enough to bump from several threads at once; solvers should look theirs up once and keep it in a static field. Values can be dumped as JSON at the end of
+ * a run and are also published to Flight Recorder as periodic {@link CounterEvent}s.
+ */
+public class Metrics {
+    private static final ConcurrentMap<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+
+    static {
+        FlightRecorder.addPeriodicEvent(CounterEvent.class, Metrics::emitCounterEvents);
+    }
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name Counter name, e.g. "day09.marbles"
+     * @return Counter
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * Returns the current value of every counter, sorted by name.
+     *
+     * @return
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /**
+     * Resets every counter to 0.
+     */
+    public static void reset() {
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Formats the current counter values as a flat JSON object.
+     *
+     * @return
+     */
+    public static String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : snapshot().entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(System.lineSeparator()).append("  \"").append(escape(entry.getKey())).append("\": ").append(entry.getValue());
+        }
+        return sb.append(System.lineSeparator()).append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Writes the current counter values to a JSON file.
+     *
+     * @param file Output file
+     * @throws IOException If the file can't be written
+     */
+    public static void writeJson(Path file) throws IOException {
+        Files.writeString(file, toJson());
+    }
+
+    private static void emitCounterEvents() {
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            CounterEvent event = new CounterEvent();
+            event.name = entry.getKey();
+            event.value = entry.getValue().sum();
+            event.commit();
+        }
+    }
+}
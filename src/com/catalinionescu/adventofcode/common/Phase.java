@@ -0,0 +1,10 @@
+package com.catalinionescu.adventofcode.common;
+
+/**
+ * The phases a solver goes through, in execution order.
+ */
+public enum Phase {
+    PARSE,
+    PART1,
+    PART2
+}
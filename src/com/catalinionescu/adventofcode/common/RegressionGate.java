@@ -0,0 +1,288 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerators;
+
+/**
+ * Checks every solver against known answers and resource budgets, so an optimization that breaks an answer or slows a day down doesn't go unnoticed.
+ * <p>
+ * The cases live in a golden file (regression/golden.txt by default), one per line: day, input spec (see {@link InputGenerators}), part 1 answer, part 2
+ * answer, wall-clock budget and allocation budget in megabytes for the whole run of the day. Answers holding blanks or line breaks are stored as "sha256:"
+ * followed by the hash of the answer. Lines starting with # are comments.
+ * <p>
+ * Wall-clock budgets are relative to the machine the gate runs on: the gate first times a fixed calibration workload, sorting random numbers, and a budget
+ * is a multiple of that time, so a golden file recorded on a fast machine holds on a slower one and the slack only has to cover noise. Budgets never go
+ * below 100 ms, where timings are mostly noise.
+ * <p>
+ * Usage: RegressionGate [--golden file] [--runs n] [--record] [day...]. Each case runs n times (1 by default) on the calling thread, bypassing the answer
+ * cache, and is judged on its fastest and least allocating run. The gate exits with status 1 if any answer differs or any budget is exceeded. --record
+ * rewrites the golden file with the answers just computed and budgets with some room for noise, for the cases already listed in it.
+ */
+public class RegressionGate {
+    private static final String DEFAULT_GOLDEN_FILE = "regression/golden.txt";
+    private static final String HASH_PREFIX = "sha256:";
+    private static final String UNKNOWN = "-";
+
+    // Budgets written by --record: the measured values times the slack, but never less than the floor
+    private static final double TIME_SLACK = 2.0;
+    private static final long MIN_MILLIS = 100;
+    private static final double ALLOCATION_SLACK = 2.0;
+    private static final long MIN_ALLOCATED_MB = 16;
+
+    private static final long MB = 1024 * 1024;
+
+    // Calibration workload: sort this many random ints, best of a few runs after one to warm up
+    private static final int CALIBRATION_SIZE = 1 << 20;
+    private static final int CALIBRATION_RUNS = 5;
+
+    static class Case {
+        private final int day;
+        private final String input;
+        private String part1;
+        private String part2;
+        // Wall-clock budget, in calibration runs
+        private double maxTime;
+        private long maxAllocatedMB;
+
+        Case(String line) {
+            String fields[] = line.trim().split("\\s+");
+            if (fields.length != 2 && fields.length != 6) {
+                throw new IllegalArgumentException("Expected day, input, part 1, part 2, ms budget and MB budget: " + line);
+            }
+
+            day = Integer.parseInt(fields[0]);
+            input = fields[1];
+            if (fields.length == 6) {
+                part1 = fields[2];
+                part2 = fields[3];
+                maxTime = Double.parseDouble(fields[4]);
+                maxAllocatedMB = Long.parseLong(fields[5]);
+            } else {
+                part1 = UNKNOWN;
+                part2 = UNKNOWN;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-3d %-16s %-34s %-34s %8.2f %8d", day, input, part1, part2, maxTime, maxAllocatedMB);
+        }
+    }
+
+    private final SolverRegistry registry;
+    private final InputGenerators generators;
+    private final double calibrationMillis;
+
+    /**
+     * Creates a gate, timing the calibration workload its wall-clock budgets are measured in.
+     *
+     * @param registry Solvers
+     * @param generators Generators for the generated inputs
+     */
+    public RegressionGate(SolverRegistry registry, InputGenerators generators) {
+        this.registry = registry;
+        this.generators = generators;
+        calibrationMillis = calibrate() / 1_000_000.0;
+        Log.logInfoMessage("Calibration run took %.3f ms", calibrationMillis);
+    }
+
+    /**
+     * Times the calibration workload.
+     *
+     * @return Fastest run, in nanoseconds
+     */
+    private static long calibrate() {
+        SplittableRandom random = new SplittableRandom(1);
+        int values[] = new int[CALIBRATION_SIZE];
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run <= CALIBRATION_RUNS; run++) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt();
+            }
+            long start = System.nanoTime();
+            Arrays.sort(values);
+            long nanos = System.nanoTime() - start;
+            if (run > 0) {
+                best = Math.min(best, nanos);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Turns an answer into its golden file form.
+     *
+     * @param answer Answer
+     * @return The answer itself, or its hash if it can't be written as a single field
+     */
+    static String golden(Object answer) {
+        String value = String.valueOf(answer);
+        if (!value.isEmpty() && value.chars().noneMatch(Character::isWhitespace) && !value.startsWith(HASH_PREFIX)) {
+            return value;
+        }
+
+        try {
+            StringBuilder sb = new StringBuilder(HASH_PREFIX);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8))) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Runs a case and checks it against its golden values.
+     *
+     * @param goldenCase Case
+     * @param runs Number of runs
+     * @param record True to store the outcome in the case instead of checking it
+     * @return Problems found, empty if the case passed
+     */
+    public List<String> check(Case goldenCase, int runs, boolean record) {
+        List<String> problems = new ArrayList<>();
+        SolverResult result = null;
+        long bestNanos = Long.MAX_VALUE;
+        long leastBytes = Long.MAX_VALUE;
+
+        try {
+            Path input = generators.resolve(goldenCase.day, goldenCase.input, Paths.get(registry.info(goldenCase.day).getInputFile()));
+            for (int run = 0; run < runs; run++) {
+                Solver solver = registry.create(goldenCase.day);
+                long bytes = MemoryProbe.allocatedBytes();
+                result = SolverRunner.run(goldenCase.day, solver, input);
+                bytes = MemoryProbe.allocatedBytes() - bytes;
+                bestNanos = Math.min(bestNanos, result.getTotalWallNanos());
+                leastBytes = Math.min(leastBytes, bytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            problems.add("failed: " + e);
+            return problems;
+        }
+
+        long millis = (bestNanos + 999_999) / 1_000_000;
+        long allocatedMB = (leastBytes + MB - 1) / MB;
+        Log.logInfoMessage("Day %2d %-16s %10.3f ms %8.2f runs %8d MB", goldenCase.day, goldenCase.input, bestNanos / 1_000_000.0, millis / calibrationMillis,
+                allocatedMB);
+
+        if (record) {
+            goldenCase.part1 = golden(result.getPart1());
+            goldenCase.part2 = golden(result.getPart2());
+            // Rounded up to the precision the golden file keeps
+            goldenCase.maxTime = Math.ceil(millis * TIME_SLACK / calibrationMillis * 100) / 100;
+            goldenCase.maxAllocatedMB = Math.max(MIN_ALLOCATED_MB, (long) Math.ceil(allocatedMB * ALLOCATION_SLACK));
+            return problems;
+        }
+
+        if (!goldenCase.part1.equals(golden(result.getPart1()))) {
+            problems.add(String.format("part 1 is %s, expected %s", golden(result.getPart1()), goldenCase.part1));
+        }
+        if (!goldenCase.part2.equals(golden(result.getPart2()))) {
+            problems.add(String.format("part 2 is %s, expected %s", golden(result.getPart2()), goldenCase.part2));
+        }
+        long maxMillis = Math.max(MIN_MILLIS, (long) Math.ceil(goldenCase.maxTime * calibrationMillis));
+        if (millis > maxMillis) {
+            problems.add(String.format("took %d ms, budget is %d ms (%.2f calibration runs)", millis, maxMillis, goldenCase.maxTime));
+        }
+        if (leastBytes >= 0 && allocatedMB > goldenCase.maxAllocatedMB) {
+            problems.add(String.format("allocated %d MB, budget is %d MB", allocatedMB, goldenCase.maxAllocatedMB));
+        }
+        return problems;
+    }
+
+    private static List<Case> readCases(Path goldenFile) throws IOException {
+        List<Case> cases = new ArrayList<>();
+        for (String line : Files.readAllLines(goldenFile)) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                cases.add(new Case(line));
+            }
+        }
+        return cases;
+    }
+
+    private static void writeCases(Path goldenFile, List<Case> cases) throws IOException {
+        Path tmp = Files.createTempFile(goldenFile.toAbsolutePath().getParent(), "golden", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            writer.write("# Golden answers and budgets checked by RegressionGate. Rewrite with --record after a deliberate change.\n");
+            writer.write("# day, input, part 1, part 2, max time in calibration runs, max MB\n");
+            for (Case goldenCase : cases) {
+                writer.write(goldenCase.toString());
+                writer.write('\n');
+            }
+        }
+        Files.move(tmp, goldenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path goldenFile = Paths.get(DEFAULT_GOLDEN_FILE);
+        int runs = 1;
+        boolean record = false;
+        Set<Integer> days = new HashSet<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--golden":
+                    goldenFile = Paths.get(args[++i]);
+                    break;
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--record":
+                    record = true;
+                    break;
+                default:
+                    days.add(Integer.parseInt(args[i]));
+                    break;
+            }
+        }
+
+        SolverRegistry registry = new SolverRegistry(SolverRunner.DEFAULT_YEAR);
+        RegressionGate gate = new RegressionGate(registry, new InputGenerators(registry.getYear()));
+        List<Case> cases = readCases(goldenFile);
+
+        int checked = 0;
+        int failed = 0;
+        for (Case goldenCase : cases) {
+            if (!days.isEmpty() && !days.contains(goldenCase.day)) {
+                continue;
+            }
+
+            checked++;
+            List<String> problems = gate.check(goldenCase, runs, record);
+            for (String problem : problems) {
+                Log.logErrorMessage("Day %d %s: %s", goldenCase.day, goldenCase.input, problem);
+            }
+            if (!problems.isEmpty()) {
+                failed++;
+            }
+        }
+
+        if (record) {
+            writeCases(goldenFile, cases);
+            Log.logInfoMessage("Recorded %s", goldenFile);
+        }
+
+        if (failed > 0) {
+            Log.logErrorMessage("Regression gate failed: %d of %d cases", failed, checked);
+            Log.flush();
+            System.exit(1);
+        }
+        Log.logInfoMessage("Regression gate passed");
+    }
+}
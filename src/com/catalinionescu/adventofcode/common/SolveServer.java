@@ -0,0 +1,261 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.catalinionescu.adventofcode.generators.InputGenerators;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Keeps the solvers loaded and warmed up in a long running JVM and solves puzzles on request over HTTP, on the loopback interface only.
+ * <p>
+ * GET /solve?day=N&amp;input=path solves a day against an input file; POST /solve?day=N with the input as the request body solves it against the posted
+ * input. part=1 or part=2 limits the answer to one part (part 2 still runs part 1 first). Without an input path or body, the day's checked-in input is used.
+ * Input paths must lead to a file under the inputs directory, so requests can't read arbitrary files; an input can also be a generated input spec such as
+ * gen:5000 (see {@link InputGenerators}). The answer comes back as a JSON object with the answers, null for a part without one, and the wall-clock and CPU
+ * time of each phase, in milliseconds. GET /days lists the available days.
+ * <p>
+ * Requests are served concurrently by a fixed pool of threads. Right after starting, every day is run a few times against its checked-in input in the
+ * background, so the JIT has compiled the hot paths by the time requests come in; requests are served while that goes on.
+ * <p>
+ * Usage: SolveServer [--port port] [--threads n] [--warmup rounds]. The port is 8018 by default, threads default to the number of processors and warmup to 3
+ * rounds (0 turns it off).
+ */
+public class SolveServer {
+    private static final int DEFAULT_PORT = 8018;
+    private static final int DEFAULT_WARMUP_ROUNDS = 3;
+    // A day whose warmup run takes longer than this is warm enough after that single run
+    private static final long WARMUP_LIMIT_NANOS = 1_000_000_000L;
+    // Input paths of GET requests must lead under this directory
+    private static final String INPUTS_DIR = "inputs";
+
+    private final SolverRegistry registry;
+    private final InputGenerators generators;
+    private final Path inputsDir;
+    private final HttpServer server;
+    private final ExecutorService workers;
+
+    public SolveServer(SolverRegistry registry, int port, int threads) throws IOException {
+        this.registry = registry;
+        generators = new InputGenerators(registry.getYear());
+        inputsDir = Paths.get(INPUTS_DIR).toAbsolutePath().normalize();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "solve-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.createContext("/solve", this::solve);
+        server.createContext("/days", this::days);
+    }
+
+    public void start() {
+        server.start();
+        Log.logInfoMessage("Solve server listening on http://%s:%d/", server.getAddress().getHostString(), server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        workers.shutdown();
+    }
+
+    /**
+     * Runs every day against its checked-in input a number of times, so the hot paths get compiled before the first real request.
+     *
+     * @param rounds Number of runs per day
+     */
+    public void warmUp(int rounds) {
+        long start = System.nanoTime();
+        for (int day : registry.getDays()) {
+            for (int round = 0; round < rounds; round++) {
+                try {
+                    Solver solver = registry.create(day);
+                    SolverResult result = SolverRunner.run(day, solver, Paths.get(registry.info(day).getInputFile()));
+                    if (result.getTotalWallNanos() > WARMUP_LIMIT_NANOS) {
+                        break;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Log.logWarningMessage("Warmup of day %d failed: %s", day, e);
+                    break;
+                }
+            }
+        }
+        Log.logInfoMessage("Warmup done in %.3f ms", (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+
+        for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(param.substring(0, eq), StandardCharsets.UTF_8), URLDecoder.decode(param.substring(eq + 1),
+                    StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void solve(HttpExchange exchange) throws IOException {
+        Path payload = null;
+        try {
+            Map<String, String> params = queryParams(exchange);
+            if (!params.containsKey("day")) {
+                reply(exchange, 400, error("Missing day"));
+                return;
+            }
+            int day = Integer.parseInt(params.get("day"));
+            if (!registry.hasSolver(day)) {
+                reply(exchange, 404, error("No solver for day " + day));
+                return;
+            }
+
+            Phase last = Phase.PART2;
+            String part = params.get("part");
+            if ("1".equals(part)) {
+                last = Phase.PART1;
+            } else if (part != null && !"2".equals(part)) {
+                reply(exchange, 400, error("Part must be 1 or 2"));
+                return;
+            }
+
+            Solver solver = registry.create(day);
+            Path input;
+            if ("POST".equals(exchange.getRequestMethod())) {
+                // Solvers parse files, so posted inputs go through a temporary one
+                payload = Files.createTempFile("solve-", ".txt");
+                try (InputStream body = exchange.getRequestBody()) {
+                    Files.copy(body, payload, StandardCopyOption.REPLACE_EXISTING);
+                }
+                input = payload;
+            } else if (params.containsKey("input")) {
+                String spec = params.get("input");
+                if (spec.startsWith(InputGenerators.GENERATED_PREFIX)) {
+                    input = generators.resolve(day, spec, null);
+                } else {
+                    input = Paths.get(spec).toAbsolutePath().normalize();
+                    if (!input.startsWith(inputsDir)) {
+                        reply(exchange, 403, error("Input must be under " + INPUTS_DIR + "/ or a generated input spec: " + spec));
+                        return;
+                    }
+                    if (!Files.isRegularFile(input)) {
+                        reply(exchange, 404, error("No such input: " + spec));
+                        return;
+                    }
+                    // Links are followed, so they can't lead out either
+                    if (!input.toRealPath().startsWith(inputsDir.toRealPath())) {
+                        reply(exchange, 403, error("Input must be under " + INPUTS_DIR + "/ or a generated input spec: " + spec));
+                        return;
+                    }
+                }
+            } else {
+                input = Paths.get(registry.info(day).getInputFile());
+            }
+
+            SolverResult result = SolverRunner.run(day, solver, input, last);
+            reply(exchange, 200, toJson(result, last, part));
+        } catch (NumberFormatException e) {
+            reply(exchange, 400, error("Bad number: " + e.getMessage()));
+        } catch (IOException | RuntimeException e) {
+            reply(exchange, 500, error(e.toString()));
+        } finally {
+            if (payload != null) {
+                Files.deleteIfExists(payload);
+            }
+        }
+    }
+
+    private void days(HttpExchange exchange) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"year\":").append(registry.getYear()).append(",\"days\":[");
+        String separator = "";
+        for (int day : registry.getDays()) {
+            sb.append(separator).append(day);
+            separator = ",";
+        }
+        reply(exchange, 200, sb.append("]}").toString());
+    }
+
+    private static String toJson(SolverResult result, Phase last, String part) {
+        StringBuilder sb = new StringBuilder("{\"day\":").append(result.getDay());
+        if (part == null || "1".equals(part)) {
+            sb.append(",\"part1\":").append(Json.answer(result.getPart1()));
+        }
+        if (last == Phase.PART2) {
+            sb.append(",\"part2\":").append(Json.answer(result.getPart2()));
+        }
+        for (Phase phase : Phase.values()) {
+            if (phase.compareTo(last) > 0) {
+                break;
+            }
+            String name = phase.name().toLowerCase();
+            sb.append(String.format(",\"%sWallMillis\":%.3f,\"%sCpuMillis\":%.3f", name, result.getWallNanos(phase) / 1_000_000.0, name, result.getCpuNanos(
+                phase) / 1_000_000.0));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void reply(HttpExchange exchange, int status, String json) throws IOException {
+        byte body[] = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int warmupRounds = DEFAULT_WARMUP_ROUNDS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmupRounds = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    Log.logErrorMessage("Usage: SolveServer [--port port] [--threads n] [--warmup rounds]");
+                    return;
+            }
+        }
+
+        SolveServer server = new SolveServer(new SolverRegistry(SolverRunner.DEFAULT_YEAR), port, threads);
+        server.start();
+        if (warmupRounds > 0) {
+            int rounds = warmupRounds;
+            Thread warmup = new Thread(() -> server.warmUp(rounds), "solve-warmup");
+            warmup.setDaemon(true);
+            warmup.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "solve-server-stop"));
+    }
+}
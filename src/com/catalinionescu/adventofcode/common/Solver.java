@@ -0,0 +1,34 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Common entry points of a puzzle solution. A solver is stateful: {@link #parse(Path)} is called once and prepares whatever the two parts need, after which
+ * {@link #part1()} and {@link #part2()} are called in this order. Create a new instance for each input.
+ * <p>
+ * Solvers are found through a {@link SolverProvider}, which also names their checked-in input.
+ */
+public interface Solver {
+    /**
+     * Reads and parses the puzzle input.
+     *
+     * @param input Input file
+     * @throws IOException If the input can't be read
+     */
+    void parse(Path input) throws IOException;
+
+    /**
+     * Solves the first part of the puzzle.
+     *
+     * @return Answer, or null if there's no answer
+     */
+    Object part1();
+
+    /**
+     * Solves the second part of the puzzle.
+     *
+     * @return Answer, or null if there's no answer
+     */
+    Object part2();
+}
@@ -0,0 +1,68 @@
+package com.catalinionescu.adventofcode.common;
+
+/**
+ * What the runners need to know about a solver before running it: its puzzle, the name of its class and where its checked-in input is. Holding the class by
+ * name is what keeps a solver unloaded until its day is actually run.
+ */
+public final class SolverInfo {
+    private static final String INPUT_URL = "https://adventofcode.com/%d/day/%d/input";
+
+    private final int year;
+    private final int day;
+    private final String className;
+    private final String inputFile;
+
+    /**
+     * Describes a solver.
+     *
+     * @param year Year of the puzzle
+     * @param day Day of the puzzle
+     * @param className Fully qualified name of the solver class
+     * @param inputFile Checked-in input, relative to the project root
+     */
+    public SolverInfo(int year, int day, String className, String inputFile) {
+        if (day < 1 || day > 25) {
+            throw new IllegalArgumentException(String.format("%s: no such day %d", className, day));
+        }
+
+        this.year = year;
+        this.day = day;
+        this.className = className;
+        this.inputFile = inputFile;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Returns the checked-in input of the puzzle, relative to the project root.
+     *
+     * @return
+     */
+    public String getInputFile() {
+        return inputFile;
+    }
+
+    /**
+     * Returns where the puzzle input can be downloaded from, once logged in.
+     *
+     * @return
+     */
+    public String getInputUrl() {
+        return String.format(INPUT_URL, year, day);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d day %d: %s (%s)", year, day, className, inputFile);
+    }
+}
@@ -0,0 +1,27 @@
+package com.catalinionescu.adventofcode.common;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one phase of a solver run. Only costs anything while a recording is active.
+ */
+@Name("com.catalinionescu.adventofcode.SolverPhase")
+@Label("Solver Phase")
+@Category("Advent of Code")
+@Description("Parsing or solving one part of a puzzle")
+public class SolverPhaseEvent extends Event {
+    @Label("Day")
+    int day;
+
+    @Label("Phase")
+    String phase;
+
+    public SolverPhaseEvent(int day, Phase phase) {
+        this.day = day;
+        this.phase = phase.name();
+    }
+}
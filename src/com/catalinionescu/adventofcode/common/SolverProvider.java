@@ -0,0 +1,17 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.util.List;
+
+/**
+ * Lists the solvers that ship with the project, found by {@link SolverRegistry} through {@link java.util.ServiceLoader}. Each year has one provider,
+ * registered in META-INF/services, which describes its solvers by class name only: loading a provider must not load any solver, so starting a runner costs
+ * the same however many solvers there are.
+ */
+public interface SolverProvider {
+    /**
+     * Describes the solvers of this provider.
+     *
+     * @return Solver descriptions, at most one per year and day
+     */
+    List<SolverInfo> solvers();
+}
@@ -0,0 +1,124 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the solvers of a year through the {@link SolverProvider}s registered with {@link ServiceLoader}. Providers only describe their solvers, so the
+ * registry knows every day and its input up front but a solver class is only loaded the first time its day is created.
+ */
+public class SolverRegistry {
+    private final int year;
+    // <day, solver description>, sorted by day
+    private final Map<Integer, SolverInfo> solvers = new TreeMap<>();
+    // <day, solver class>, for the days created so far
+    private final Map<Integer, Class<? extends Solver>> loaded = new ConcurrentHashMap<>();
+
+    public SolverRegistry(int year) {
+        this(year, ServiceLoader.load(SolverProvider.class));
+    }
+
+    /**
+     * Creates a registry over some providers, keeping the solvers of one year.
+     *
+     * @param year Year of the puzzles
+     * @param providers Solver providers
+     */
+    public SolverRegistry(int year, Iterable<SolverProvider> providers) {
+        this.year = year;
+
+        for (SolverProvider provider : providers) {
+            for (SolverInfo info : provider.solvers()) {
+                if (info.getYear() != year) {
+                    continue;
+                }
+
+                SolverInfo previous = solvers.putIfAbsent(info.getDay(), info);
+                if (previous != null) {
+                    throw new IllegalStateException(String.format("Two solvers for %d day %d: %s and %s", year, info.getDay(), previous.getClassName(), info
+                            .getClassName()));
+                }
+            }
+        }
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Returns the days that have a solver, in ascending order.
+     * 
+     * @return
+     */
+    public Set<Integer> getDays() {
+        return Collections.unmodifiableSet(solvers.keySet());
+    }
+
+    /**
+     * Returns true if there's a solver for the given day.
+     * 
+     * @param day Day of the puzzle
+     * @return
+     */
+    public boolean hasSolver(int day) {
+        return solvers.containsKey(day);
+    }
+
+    /**
+     * Describes the solver of a day, without loading it.
+     * 
+     * @param day Day of the puzzle
+     * @return Solver description
+     */
+    public SolverInfo info(int day) {
+        SolverInfo info = solvers.get(day);
+        if (info == null) {
+            throw new IllegalArgumentException(String.format("No solver found for %d day %d", year, day));
+        }
+        return info;
+    }
+
+    /**
+     * Returns true if the solver class of a day has been loaded by this registry.
+     * 
+     * @param day Day of the puzzle
+     * @return
+     */
+    public boolean isLoaded(int day) {
+        return loaded.containsKey(day);
+    }
+
+    private static Class<? extends Solver> load(SolverInfo info) {
+        try {
+            Class<?> clazz = Class.forName(info.getClassName());
+            if (!Solver.class.isAssignableFrom(clazz)) {
+                throw new IllegalStateException(String.format("%s isn't a solver", info.getClassName()));
+            }
+            return clazz.asSubclass(Solver.class);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(String.format("Solver %s is registered but missing", info.getClassName()), e);
+        }
+    }
+
+    /**
+     * Creates a new solver instance for the given day.
+     * 
+     * @param day Day of the puzzle
+     * @return New solver instance
+     */
+    public Solver create(int day) {
+        Class<? extends Solver> clazz = loaded.computeIfAbsent(day, d -> load(info(d)));
+
+        try {
+            return clazz.getDeclaredConstructor().newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new IllegalStateException(String.format("Can't create solver %s", clazz.getName()), e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Answers and per phase timings and memory figures of a single solver run.
+ */
+public class SolverResult {
+    private final int day;
+    private Object part1;
+    private Object part2;
+    private Throwable error;
+    private boolean cached = false;
+    private final Map<Phase, Long> wallNanos = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> cpuNanos = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> allocatedBytes = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> peakHeapBytes = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> gcCount = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> gcMillis = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> retainedBytes = new EnumMap<>(Phase.class);
+
+    public SolverResult(int day) {
+        this.day = day;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    public Object getPart1() {
+        return part1;
+    }
+
+    public void setPart1(Object part1) {
+        this.part1 = part1;
+    }
+
+    public Object getPart2() {
+        return part2;
+    }
+
+    public void setPart2(Object part2) {
+        this.part2 = part2;
+    }
+
+    /**
+     * Returns the reason the run failed, or null if it completed.
+     * 
+     * @return
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public void setError(Throwable error) {
+        this.error = error;
+    }
+
+    /**
+     * Returns true if the answers came from the answer cache rather than from running the solver.
+     * 
+     * @return
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    /**
+     * Records the time spent in a phase.
+     * 
+     * @param phase Solver phase
+     * @param wall Elapsed wall-clock time, in nanoseconds
+     * @param cpu CPU time consumed by the running thread, in nanoseconds. Negative if not supported by the JVM.
+     */
+    public void setTiming(Phase phase, long wall, long cpu) {
+        wallNanos.put(phase, wall);
+        cpuNanos.put(phase, cpu);
+    }
+
+    public long getWallNanos(Phase phase) {
+        return wallNanos.getOrDefault(phase, 0L);
+    }
+
+    public long getCpuNanos(Phase phase) {
+        return cpuNanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Returns the total wall-clock time of all phases, in nanoseconds.
+     * 
+     * @return
+     */
+    public long getTotalWallNanos() {
+        long result = 0;
+        for (long nanos : wallNanos.values()) {
+            result += nanos;
+        }
+        return result;
+    }
+
+    /**
+     * Records the memory figures of a phase.
+     * 
+     * @param phase Solver phase
+     * @param allocated Bytes allocated by the running thread. Negative if not supported by the JVM.
+     * @param peakHeap Most heap in use during the phase, in bytes, or -1 if unknown
+     * @param collections Number of garbage collections during the phase
+     * @param collectionMillis Time spent in those collections, in milliseconds
+     */
+    public void setMemory(Phase phase, long allocated, long peakHeap, long collections, long collectionMillis) {
+        allocatedBytes.put(phase, allocated);
+        peakHeapBytes.put(phase, peakHeap);
+        gcCount.put(phase, collections);
+        gcMillis.put(phase, collectionMillis);
+    }
+
+    /**
+     * Records how much live data the run holds after a phase, on top of what the JVM held before the run.
+     * 
+     * @param phase Solver phase
+     * @param retained Bytes
+     */
+    public void setRetainedBytes(Phase phase, long retained) {
+        retainedBytes.put(phase, retained);
+    }
+
+    /**
+     * Returns how much live data the run held after a phase, or -1 if it wasn't measured.
+     * 
+     * @param phase Solver phase
+     * @return Bytes
+     */
+    public long getRetainedBytes(Phase phase) {
+        return retainedBytes.getOrDefault(phase, -1L);
+    }
+
+    /**
+     * Returns the most live data the run held after any phase, or -1 if it wasn't measured.
+     * 
+     * @return Bytes
+     */
+    public long getMaxRetainedBytes() {
+        long result = -1;
+        for (long bytes : retainedBytes.values()) {
+            result = Math.max(result, bytes);
+        }
+        return result;
+    }
+
+    public long getAllocatedBytes(Phase phase) {
+        return allocatedBytes.getOrDefault(phase, 0L);
+    }
+
+    public long getPeakHeapBytes(Phase phase) {
+        return peakHeapBytes.getOrDefault(phase, 0L);
+    }
+
+    public long getGcCount(Phase phase) {
+        return gcCount.getOrDefault(phase, 0L);
+    }
+
+    public long getGcMillis(Phase phase) {
+        return gcMillis.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Returns the bytes allocated by all phases.
+     * 
+     * @return
+     */
+    public long getTotalAllocatedBytes() {
+        long result = 0;
+        for (long bytes : allocatedBytes.values()) {
+            result += Math.max(0, bytes);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the most heap in use during any phase, in bytes.
+     * 
+     * @return Bytes, or -1 if the peak of some phase is unknown because it ran alongside other days
+     */
+    public long getPeakHeapBytes() {
+        long result = 0;
+        for (long bytes : peakHeapBytes.values()) {
+            if (bytes < 0) {
+                return -1;
+            }
+            result = Math.max(result, bytes);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of garbage collections during all phases.
+     * 
+     * @return
+     */
+    public long getTotalGcCount() {
+        long result = 0;
+        for (long count : gcCount.values()) {
+            result += count;
+        }
+        return result;
+    }
+}
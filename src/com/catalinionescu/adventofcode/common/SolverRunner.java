@@ -0,0 +1,430 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.catalinionescu.adventofcode.generators.InputGenerators;
+
+/**
+ * Runs solvers phase by phase, measuring the wall-clock and CPU time of each phase, the bytes it allocates, the most heap in use while it runs and the
+ * garbage collections it triggers. Allocations are counted per thread and so always belong to the day; peak heap and collections are JVM-wide, so they
+ * only describe a single day with -j 1, and peaks of phases that overlapped with others are reported as n/a. With the "aoc.memory.footprint" system property set to true, garbage is also collected around every phase to
+ * measure how much live data each day holds (see {@link MemoryProbe}).
+ * <p>
+ * Usage: SolverRunner [-j threads] [--input spec] [--no-cache] [--refresh] [--clear-cache] [--metrics file] [day...]. With no days all the registered 2018
+ * days are run. Days run in parallel, one day per thread, on as many threads as there are processors unless -j says otherwise; -j 1 runs them one after the
+ * other.
+ * <p>
+ * --input runs every day against the input named by the spec instead of its checked-in input, e.g. "gen:100000" for generated inputs of that size (see
+ * {@link InputGenerators}).
+ * <p>
+ * Answers are looked up in the answer cache (directory set by the "aoc.cache.dir" system property, .answer-cache by default) before running a solver, and
+ * stored there afterwards. --no-cache neither reads nor writes the cache, --refresh runs the solvers anyway and overwrites what's cached for their inputs,
+ * and --clear-cache empties the cache before running.
+ * <p>
+ * --metrics writes the solver counters and phase timings to the given file as JSON once all days are done. The phases and counters are also available to
+ * Flight Recorder, e.g. by starting the JVM with -XX:StartFlightRecording.
+ */
+public class SolverRunner {
+    static final int DEFAULT_YEAR = 2018;
+    private static final String DEFAULT_CACHE_DIR = ".answer-cache";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Returns the CPU time of the current thread, or -1 if the JVM can't measure it.
+     * 
+     * @return CPU time in nanoseconds
+     */
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Runs all the phases of a solver against an input file.
+     * 
+     * @param day Day of the puzzle
+     * @param solver Fresh solver instance
+     * @param input Input file
+     * @return Answers and timings
+     * @throws IOException If the input can't be read
+     */
+    public static SolverResult run(int day, Solver solver, Path input) throws IOException {
+        return run(day, solver, input, Phase.PART2);
+    }
+
+    /**
+     * Runs the phases of a solver against an input file, in order, up to the given one. Part 2 always runs after part 1, since some solvers reuse what part
+     * 1 computed.
+     * 
+     * @param day Day of the puzzle
+     * @param solver Fresh solver instance
+     * @param input Input file
+     * @param last Last phase to run
+     * @return Answers and timings; phases that didn't run have no answer and take no time
+     * @throws IOException If the input can't be read
+     */
+    public static SolverResult run(int day, Solver solver, Path input, Phase last) throws IOException {
+        SolverResult result = new SolverResult(day);
+        boolean footprint = MemoryProbe.isFootprintEnabled();
+        long baseline = footprint ? MemoryProbe.liveHeapBytes() : 0;
+
+        for (Phase phase : Phase.values()) {
+            if (phase.compareTo(last) > 0) {
+                break;
+            }
+
+            if (footprint && phase != Phase.PARSE) {
+                // Drop what the previous phase threw away, so the peak starts from live data
+                MemoryProbe.liveHeapBytes();
+            }
+            SolverPhaseEvent event = new SolverPhaseEvent(day, phase);
+            event.begin();
+            long peakToken = MemoryProbe.startPeakHeap();
+            long gcCount = MemoryProbe.gcCount();
+            long gcMillis = MemoryProbe.gcMillis();
+            long allocated = MemoryProbe.allocatedBytes();
+            long wall = System.nanoTime();
+            long cpu = cpuTime();
+            try {
+                switch (phase) {
+                    case PARSE:
+                        solver.parse(input);
+                        break;
+                    case PART1:
+                        result.setPart1(solver.part1());
+                        break;
+                    case PART2:
+                        result.setPart2(solver.part2());
+                        break;
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                // Let later phases measure their peaks again
+                MemoryProbe.endPeakHeap(peakToken);
+                throw e;
+            }
+            result.setTiming(phase, System.nanoTime() - wall, cpuTime() - cpu);
+            result.setMemory(phase, allocated < 0 ? -1 : MemoryProbe.allocatedBytes() - allocated, MemoryProbe.endPeakHeap(peakToken), MemoryProbe
+                    .gcCount() - gcCount, MemoryProbe.gcMillis() - gcMillis);
+            event.commit();
+            if (footprint) {
+                result.setRetainedBytes(phase, Math.max(0, MemoryProbe.liveHeapBytes() - baseline));
+            }
+
+            String prefix = String.format("day%02d.%s", day, phase.name().toLowerCase());
+            Metrics.counter(prefix + ".wallNanos").add(result.getWallNanos(phase));
+            Metrics.counter(prefix + ".cpuNanos").add(result.getCpuNanos(phase));
+            Metrics.counter(prefix + ".allocatedBytes").add(Math.max(0, result.getAllocatedBytes(phase)));
+            Metrics.counter(prefix + ".gcCount").add(result.getGcCount(phase));
+        }
+
+        return result;
+    }
+
+    /**
+     * Solves part 1 of a streaming solver in a single pass over an input file, without parsing it first. The time spent reading the input counts as part 1,
+     * parse takes no time and part 2 doesn't run.
+     * 
+     * @param day Day of the puzzle
+     * @param solver Solver instance
+     * @param input Input file
+     * @return Part 1 answer and timing
+     * @throws IOException If the input can't be read
+     */
+    public static SolverResult stream(int day, StreamingSolver solver, Path input) throws IOException {
+        SolverResult result = new SolverResult(day);
+
+        SolverPhaseEvent event = new SolverPhaseEvent(day, Phase.PART1);
+        event.begin();
+        long wall = System.nanoTime();
+        long cpu = cpuTime();
+        try (LineSource lines = LineSource.open(input)) {
+            result.setPart1(solver.streamPart1(lines));
+        }
+        result.setTiming(Phase.PART1, System.nanoTime() - wall, cpuTime() - cpu);
+        event.commit();
+
+        String prefix = String.format("day%02d.stream", day);
+        Metrics.counter(prefix + ".wallNanos").add(result.getWallNanos(Phase.PART1));
+        Metrics.counter(prefix + ".cpuNanos").add(result.getCpuNanos(Phase.PART1));
+
+        return result;
+    }
+
+    /**
+     * Runs a registered day against its default input. Failures are recorded in the result rather than thrown, so one broken day doesn't stop the others.
+     * 
+     * @param registry Solver registry
+     * @param day Day of the puzzle
+     * @return Answers and timings, or the error that stopped the run
+     */
+    public static SolverResult runDay(SolverRegistry registry, int day) {
+        return runDay(registry, day, null, false);
+    }
+
+    /**
+     * Runs a registered day against its default input, unless its answers for that input are already cached.
+     * 
+     * @param registry Solver registry
+     * @param day Day of the puzzle
+     * @param cache Answer cache, or null to bypass it
+     * @param refresh True to run the solver even when the answers are cached, replacing them
+     * @return Answers and timings, or the error that stopped the run
+     */
+    public static SolverResult runDay(SolverRegistry registry, int day, AnswerCache cache, boolean refresh) {
+        return runDay(registry, day, null, cache, refresh);
+    }
+
+    /**
+     * Runs a registered day against the input named by a spec, unless its answers for that input are already cached.
+     * 
+     * @param registry Solver registry
+     * @param day Day of the puzzle
+     * @param inputSpec Input spec, see {@link InputGenerators}, or null for the day's checked-in input
+     * @param cache Answer cache, or null to bypass it
+     * @param refresh True to run the solver even when the answers are cached, replacing them
+     * @return Answers and timings, or the error that stopped the run
+     */
+    public static SolverResult runDay(SolverRegistry registry, int day, String inputSpec, AnswerCache cache, boolean refresh) {
+        try {
+            Path input = Paths.get(registry.info(day).getInputFile());
+            if (inputSpec != null) {
+                input = new InputGenerators(registry.getYear()).resolve(day, inputSpec, input);
+            }
+
+            String hash = null;
+            if (cache != null) {
+                hash = AnswerCache.hash(input, registry.info(day).getClassName());
+                String answers[] = refresh ? null : cache.get(registry.getYear(), day, hash);
+                if (answers != null) {
+                    SolverResult result = new SolverResult(day);
+                    result.setPart1(answers[0]);
+                    result.setPart2(answers[1]);
+                    result.setCached(true);
+                    return result;
+                }
+            }
+
+            // Only now that the answers aren't cached does the solver class get loaded
+            SolverResult result = run(day, registry.create(day), input);
+            if (cache != null) {
+                cache.put(registry.getYear(), day, hash, result.getPart1(), result.getPart2());
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            SolverResult result = new SolverResult(day);
+            result.setError(e);
+            return result;
+        }
+    }
+
+    /**
+     * Runs several days at once on a bounded pool. Each day runs from start to end on a single pool thread, so its CPU times stay accurate and the whole run
+     * takes about as long as the slowest day, as long as there are enough threads.
+     * 
+     * @param registry Solver registry
+     * @param days Days to run
+     * @param inputSpec Input spec, see {@link InputGenerators}, or null for the checked-in inputs
+     * @param parallelism Number of threads
+     * @param cache Answer cache, or null to bypass it
+     * @param refresh True to run the solvers even when their answers are cached
+     * @return Results, in the same order as the days
+     */
+    public static List<SolverResult> runAll(SolverRegistry registry, List<Integer> days, String inputSpec, int parallelism, AnswerCache cache,
+            boolean refresh) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<SolverResult>> tasks = new ArrayList<>();
+            for (int day : days) {
+                tasks.add(pool.submit(() -> runDay(registry, day, inputSpec, cache, refresh)));
+            }
+
+            List<SolverResult> results = new ArrayList<>();
+            for (ForkJoinTask<SolverResult> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs a 2018 solver against its checked-in input and logs the answers and timings. Meant to be called from each day's main().
+     * 
+     * @param day Day of the puzzle
+     * @param solver Fresh solver instance
+     * @throws IOException If the input can't be read
+     */
+    public static void runAndLog(int day, Solver solver) throws IOException {
+        logResult(run(day, solver, Paths.get(new SolverRegistry(DEFAULT_YEAR).info(day).getInputFile())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    /**
+     * Formats a memory figure that may be unknown.
+     * 
+     * @param bytes Bytes, negative if unknown
+     * @return Megabytes, or "n/a"
+     */
+    private static String megabytesOrNa(long bytes) {
+        return bytes < 0 ? "n/a" : String.format("%.1f", megabytes(bytes));
+    }
+
+    /**
+     * Logs the answers and per phase timings of a run.
+     * 
+     * @param result Run result
+     */
+    public static void logResult(SolverResult result) {
+        if (result.getError() != null) {
+            Log.logErrorMessage("Day %d failed: %s", result.getDay(), result.getError());
+            return;
+        }
+
+        if (result.isCached()) {
+            Log.logInfoMessage("Day %d part 1: %s (cached)", result.getDay(), result.getPart1());
+            Log.logInfoMessage("Day %d part 2: %s (cached)", result.getDay(), result.getPart2());
+            return;
+        }
+
+        Log.logInfoMessage("Day %d part 1: %s", result.getDay(), result.getPart1());
+        Log.logInfoMessage("Day %d part 2: %s", result.getDay(), result.getPart2());
+        for (Phase phase : Phase.values()) {
+            Log.logInfoMessage("Day %d %-5s wall: %10.3f ms, cpu: %10.3f ms, allocated: %9.1f MB, peak heap: %7s MB, gc: %d (%d ms)", result.getDay(),
+                phase, millis(result.getWallNanos(phase)), millis(result.getCpuNanos(phase)), megabytes(result.getAllocatedBytes(phase)), megabytesOrNa(result
+                        .getPeakHeapBytes(phase)), result.getGcCount(phase), result.getGcMillis(phase));
+        }
+    }
+
+    /**
+     * Logs a one line per day summary of several runs, followed by the phase that took the longest overall, the days that allocated the most, peaked
+     * highest and held the most live data, and how long the whole run took.
+     * 
+     * @param results Run results
+     * @param runNanos Wall-clock time of the whole run, in nanoseconds
+     */
+    public static void logReport(List<SolverResult> results, long runNanos) {
+        Log.logInfoMessage("Day |  parse (ms) |  part1 (ms) |  part2 (ms) |  total (ms) | alloc (MB) |  peak (MB) |  live (MB) |   gc");
+        long slowest = 0;
+        long sum = 0;
+        String hotSpot = null;
+        SolverResult mostAllocating = null;
+        SolverResult highestPeak = null;
+        SolverResult mostRetaining = null;
+        for (SolverResult result : results) {
+            sum += result.getTotalWallNanos();
+
+            long live = result.getMaxRetainedBytes();
+            Log.logInfoMessage("%3d | %11.3f | %11.3f | %11.3f | %11.3f | %10.1f | %10s | %10s | %4d", result.getDay(), millis(result.getWallNanos(
+                Phase.PARSE)), millis(result.getWallNanos(Phase.PART1)), millis(result.getWallNanos(Phase.PART2)), millis(result.getTotalWallNanos()),
+                megabytes(result.getTotalAllocatedBytes()), megabytesOrNa(result.getPeakHeapBytes()), megabytesOrNa(live), result.getTotalGcCount());
+
+            for (Phase phase : Phase.values()) {
+                if (result.getWallNanos(phase) > slowest) {
+                    slowest = result.getWallNanos(phase);
+                    hotSpot = String.format("day %d %s", result.getDay(), phase);
+                }
+            }
+            if (result.getTotalAllocatedBytes() > 0 && (mostAllocating == null || result.getTotalAllocatedBytes() > mostAllocating
+                    .getTotalAllocatedBytes())) {
+                mostAllocating = result;
+            }
+            if (result.getPeakHeapBytes() > 0 && (highestPeak == null || result.getPeakHeapBytes() > highestPeak.getPeakHeapBytes())) {
+                highestPeak = result;
+            }
+            if (result.getMaxRetainedBytes() > 0 && (mostRetaining == null || result.getMaxRetainedBytes() > mostRetaining.getMaxRetainedBytes())) {
+                mostRetaining = result;
+            }
+        }
+
+        if (hotSpot != null) {
+            Log.logInfoMessage("Hot spot: %s (%.3f ms)", hotSpot, millis(slowest));
+        }
+        if (mostAllocating != null) {
+            Log.logInfoMessage("Most allocated: day %d (%.1f MB)", mostAllocating.getDay(), megabytes(mostAllocating.getTotalAllocatedBytes()));
+        }
+        if (highestPeak != null) {
+            Log.logInfoMessage("Highest peak heap: day %d (%.1f MB)", highestPeak.getDay(), megabytes(highestPeak.getPeakHeapBytes()));
+        }
+        if (mostRetaining != null) {
+            Log.logInfoMessage("Most live data: day %d (%.1f MB)", mostRetaining.getDay(), megabytes(mostRetaining.getMaxRetainedBytes()));
+        }
+        Log.logInfoMessage("Run took %.3f ms, days took %.3f ms in total", millis(runNanos), millis(sum));
+    }
+
+    public static void main(String[] args) throws IOException {
+        SolverRegistry registry = new SolverRegistry(DEFAULT_YEAR);
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean useCache = true;
+        boolean refresh = false;
+        boolean clearCache = false;
+        Path metricsFile = null;
+        String inputSpec = null;
+        List<Integer> days = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-j":
+                    parallelism = Integer.parseInt(args[++i]);
+                    break;
+                case "--input":
+                    inputSpec = args[++i];
+                    break;
+                case "--no-cache":
+                    useCache = false;
+                    break;
+                case "--refresh":
+                    refresh = true;
+                    break;
+                case "--clear-cache":
+                    clearCache = true;
+                    break;
+                case "--metrics":
+                    metricsFile = Paths.get(args[++i]);
+                    break;
+                default:
+                    days.add(Integer.parseInt(args[i]));
+                    break;
+            }
+        }
+        if (days.isEmpty()) {
+            days.addAll(registry.getDays());
+        }
+
+        AnswerCache cache = null;
+        if (useCache) {
+            cache = new AnswerCache(Paths.get(System.getProperty("aoc.cache.dir", DEFAULT_CACHE_DIR)));
+            if (clearCache) {
+                Log.logInfoMessage("Removed %d cached answers", cache.invalidateAll());
+            }
+        }
+
+        long start = System.nanoTime();
+        List<SolverResult> results = runAll(registry, days, inputSpec, parallelism, cache, refresh);
+        long runNanos = System.nanoTime() - start;
+
+        for (SolverResult result : results) {
+            logResult(result);
+        }
+        logReport(results, runNanos);
+
+        if (metricsFile != null) {
+            Metrics.writeJson(metricsFile);
+            Log.logInfoMessage("Metrics written to %s", metricsFile);
+        }
+    }
+}
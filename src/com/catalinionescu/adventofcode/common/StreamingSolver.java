@@ -0,0 +1,19 @@
+package com.catalinionescu.adventofcode.common;
+
+import java.io.IOException;
+
+/**
+ * A solver whose first part only needs a single pass over the input. Besides the regular parse then solve route, such a solver can answer part 1 straight
+ * from a {@link LineSource}, in memory that doesn't depend on the size of the input, which is how batch runs over very large inputs keep their footprint
+ * flat.
+ */
+public interface StreamingSolver extends Solver {
+    /**
+     * Solves the first part of the puzzle while reading the input. Doesn't need {@link #parse(java.nio.file.Path)} and leaves the solver as it found it.
+     *
+     * @param lines Input lines, consumed to the end
+     * @return Answer, or null if there's no answer
+     * @throws IOException If the input can't be read
+     */
+    Object streamPart1(LineSource lines) throws IOException;
+}
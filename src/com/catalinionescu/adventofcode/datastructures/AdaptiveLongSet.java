@@ -0,0 +1,102 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+/**
+ * Set of long values that picks its layout from the values it's given: a {@link SegmentedBitSet} while they fill the ranges they visit densely, such as
+ * running sums that wander in small steps, and a {@link LongHashSet} once they turn out too sparse for 8 KB bitmaps, which happens with big jumps. The
+ * move is made once, with the values added so far, so adding stays amortized O(1).
+ * <p>
+ * A hash table can't hold more than about 2^29 values; past that the set goes back to bitmaps for good, which only cost memory, however sparse the values.
+ */
+public class AdaptiveLongSet {
+    // Rough memory cost of a value in a hash set, to tell when bitmaps have become too sparse
+    private static final int SPARSE_BYTES_PER_VALUE = 32;
+    private static final long BYTES_PER_SEGMENT = 65536 / Byte.SIZE;
+    // So few segments cost little, whatever they hold
+    private static final int MIN_SPARSE_SEGMENTS = 16;
+    private static final int MAX_HASHED = PrimitiveHashing.maxSize(PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+
+    private SegmentedBitSet dense = new SegmentedBitSet();
+    private LongHashSet sparse = null;
+    // Set once the values are too many for a hash table
+    private boolean tooManyToHash = false;
+
+    /**
+     * Returns true if the set holds the value.
+     *
+     * @param value Value
+     * @return
+     */
+    public boolean contains(long value) {
+        return sparse != null ? sparse.contains(value) : dense.contains(value);
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value Value
+     * @return True if the value wasn't in the set already
+     */
+    public boolean add(long value) {
+        if (sparse != null) {
+            if (sparse.size() < MAX_HASHED) {
+                return sparse.add(value);
+            }
+            toDense();
+        }
+
+        boolean added = dense.add(value);
+        if (added && !tooManyToHash && dense.segmentCount() > MIN_SPARSE_SEGMENTS
+                && dense.segmentCount() * BYTES_PER_SEGMENT > dense.size() * SPARSE_BYTES_PER_VALUE) {
+            toSparse();
+        }
+        return added;
+    }
+
+    /**
+     * Moves the values from bitmaps to a hash set, unless they are too many for one.
+     */
+    private void toSparse() {
+        if (dense.size() >= MAX_HASHED / 2) {
+            tooManyToHash = true;
+            return;
+        }
+
+        sparse = new LongHashSet((int) dense.size() * 2);
+        dense.forEach(sparse::add);
+        dense = null;
+    }
+
+    /**
+     * Moves the values from the hash set back to bitmaps, for good.
+     */
+    private void toDense() {
+        dense = new SegmentedBitSet();
+        for (long value : sparse.toArray()) {
+            dense.add(value);
+        }
+        sparse = null;
+        tooManyToHash = true;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return
+     */
+    public long size() {
+        return sparse != null ? sparse.size() : dense.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns true if the values are kept in a hash set rather than bitmaps.
+     *
+     * @return
+     */
+    public boolean isSparse() {
+        return sparse != null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * An explicit directed graph in compressed adjacency arrays: the edges leaving node n are edges edgeStart[n] to edgeStart[n + 1] - 1, with their targets and
+ * weights in two flat arrays. The edges of a node keep the order they were added in. Built once with a {@link Builder}, read only afterwards.
+ */
+public class AdjacencyGraph implements Graph {
+    /**
+     * Collects edges in any order and lays them out by source node.
+     */
+    public static class Builder {
+        private final int nodeCount;
+        private int from[] = new int[16];
+        private int to[] = new int[16];
+        private int weights[] = new int[16];
+        private int edgeCount;
+
+        public Builder(int nodeCount) {
+            if (nodeCount < 0) {
+                throw new IllegalArgumentException("Invalid node count: " + nodeCount);
+            }
+            this.nodeCount = nodeCount;
+        }
+
+        public Builder addEdge(int source, int target) {
+            return addEdge(source, target, 1);
+        }
+
+        /**
+         * Adds an edge.
+         *
+         * @param source Node the edge leaves
+         * @param target Node the edge leads to
+         * @param weight Cost of the edge, not negative
+         * @return This builder
+         */
+        public Builder addEdge(int source, int target, int weight) {
+            if (source < 0 || source >= nodeCount || target < 0 || target >= nodeCount) {
+                throw new IllegalArgumentException(String.format("Edge %d -> %d is outside of a %d node graph", source, target, nodeCount));
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative edge weight: " + weight);
+            }
+
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, edgeCount * 2);
+                to = Arrays.copyOf(to, edgeCount * 2);
+                weights = Arrays.copyOf(weights, edgeCount * 2);
+            }
+            from[edgeCount] = source;
+            to[edgeCount] = target;
+            weights[edgeCount] = weight;
+            edgeCount++;
+            return this;
+        }
+
+        public AdjacencyGraph build() {
+            // Counting sort by source node, stable so each node keeps its edges in the order they were added
+            int edgeStart[] = new int[nodeCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                edgeStart[from[i] + 1]++;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                edgeStart[node + 1] += edgeStart[node];
+            }
+
+            int next[] = Arrays.copyOf(edgeStart, nodeCount);
+            int targets[] = new int[edgeCount];
+            int edgeWeights[] = new int[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                int edge = next[from[i]]++;
+                targets[edge] = to[i];
+                edgeWeights[edge] = weights[i];
+            }
+            return new AdjacencyGraph(edgeStart, targets, edgeWeights);
+        }
+    }
+
+    private final int edgeStart[];
+    private final int targets[];
+    private final int weights[];
+
+    private AdjacencyGraph(int edgeStart[], int targets[], int weights[]) {
+        this.edgeStart = edgeStart;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int size() {
+        return edgeStart.length - 1;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int edgeStart(int node) {
+        return edgeStart[node];
+    }
+
+    @Override
+    public int edgeEnd(int node) {
+        return edgeStart[node + 1];
+    }
+
+    @Override
+    public int target(int node, int edge) {
+        return targets[edge];
+    }
+
+    @Override
+    public int weight(int node, int edge) {
+        return weights[edge];
+    }
+}
@@ -0,0 +1,126 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+/**
+ * Packs (x, y) coordinates into a single long or int key, so points can be stored, hashed and compared without an object per point.
+ * <p>
+ * Long keys hold any pair of ints: y in the high half and x, with its sign bit flipped, in the low half. That makes the natural order of the keys the
+ * reading order of the points (top to bottom, then left to right) whatever their signs, and makes moving a point a single addition of a packed
+ * {@link #delta(int, int)}, as long as x doesn't overflow. Int keys do the same with 16 bit halves, for coordinates between -32768 and 32767.
+ */
+public final class Coordinates {
+    private static final long LOW_MASK = 0xffffffffL;
+    private static final int INT_MIN = Short.MIN_VALUE;
+    private static final int INT_MAX = Short.MAX_VALUE;
+
+    private Coordinates() {
+    }
+
+    /**
+     * Packs a point into a long key.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Key
+     */
+    public static long pack(int x, int y) {
+        return ((long) y << 32) | ((x ^ Integer.MIN_VALUE) & LOW_MASK);
+    }
+
+    /**
+     * Returns the x coordinate of a long key.
+     *
+     * @param key Key
+     * @return
+     */
+    public static int x(long key) {
+        return (int) key ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the y coordinate of a long key.
+     *
+     * @param key Key
+     * @return
+     */
+    public static int y(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Packs a displacement, so that adding it to a long key moves the point by (dx, dy).
+     *
+     * @param dx Change in x
+     * @param dy Change in y
+     * @return Value to add to a key
+     */
+    public static long delta(int dx, int dy) {
+        return ((long) dy << 32) + dx;
+    }
+
+    /**
+     * Moves a point one step in a direction.
+     *
+     * @param key Key
+     * @param dir Direction
+     * @return Key of the neighbor
+     */
+    public static long move(long key, MoveDirection dir) {
+        return key + delta(dir.getDx(), dir.getDy());
+    }
+
+    /**
+     * Returns the Manhattan distance between two points.
+     *
+     * @param a Key of the first point
+     * @param b Key of the second point
+     * @return
+     */
+    public static long manhattan(long a, long b) {
+        return Math.abs((long) x(a) - x(b)) + Math.abs((long) y(a) - y(b));
+    }
+
+    /**
+     * Returns true if a point fits in an int key.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return
+     */
+    public static boolean fitsInt(int x, int y) {
+        return x >= INT_MIN && x <= INT_MAX && y >= INT_MIN && y <= INT_MAX;
+    }
+
+    /**
+     * Packs a point into an int key.
+     *
+     * @param x X coordinate, between -32768 and 32767
+     * @param y Y coordinate, between -32768 and 32767
+     * @return Key
+     */
+    public static int packInt(int x, int y) {
+        if (!fitsInt(x, y)) {
+            throw new IllegalArgumentException(String.format("(%d, %d) doesn't fit in an int key", x, y));
+        }
+        return (y << 16) | ((x ^ INT_MIN) & 0xffff);
+    }
+
+    /**
+     * Returns the x coordinate of an int key.
+     *
+     * @param key Key
+     * @return
+     */
+    public static int intKeyX(int key) {
+        return (short) key ^ INT_MIN;
+    }
+
+    /**
+     * Returns the y coordinate of an int key.
+     *
+     * @param key Key
+     * @return
+     */
+    public static int intKeyY(int key) {
+        return key >> 16;
+    }
+}
@@ -0,0 +1,65 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+/**
+ * A directed graph as seen by {@link GraphSearch}: nodes are numbered from 0 to size() - 1 and the edges leaving a node are numbered from edgeStart(node)
+ * to edgeEnd(node) - 1. Edges are visited in that order, which is how a graph decides which of several equally good neighbors a search finds first.
+ * <p>
+ * Nothing here allocates, so a search can walk the graph as often as it likes. An edge may lead nowhere (target -1), which lets implicit graphs such as
+ * grids number their edges by direction and skip walls and borders.
+ */
+public interface Graph {
+    /**
+     * Returns the number of nodes.
+     *
+     * @return
+     */
+    int size();
+
+    /**
+     * Returns the first edge leaving a node.
+     *
+     * @param node Node
+     * @return
+     */
+    int edgeStart(int node);
+
+    /**
+     * Returns one past the last edge leaving a node.
+     *
+     * @param node Node
+     * @return
+     */
+    int edgeEnd(int node);
+
+    /**
+     * Returns the node an edge leads to.
+     *
+     * @param node Node the edge leaves
+     * @param edge Edge, between edgeStart(node) and edgeEnd(node)
+     * @return Target node, or -1 if the edge can't be taken
+     */
+    int target(int node, int edge);
+
+    /**
+     * Returns the cost of taking an edge. Costs can't be negative.
+     *
+     * @param node Node the edge leaves
+     * @param edge Edge, between edgeStart(node) and edgeEnd(node)
+     * @return
+     */
+    default int weight(int node, int edge) {
+        return 1;
+    }
+
+    /**
+     * Returns a lower bound of the cost of getting from a node to another, for A*. The estimate has to be consistent, never dropping by more than the cost
+     * of an edge from one end of the edge to the other, for A* paths to be the shortest; the default of 0 turns A* into Dijkstra.
+     *
+     * @param from Start node
+     * @param to Goal node
+     * @return
+     */
+    default int estimate(int from, int to) {
+        return 0;
+    }
+}
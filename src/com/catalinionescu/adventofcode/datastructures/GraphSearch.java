@@ -0,0 +1,324 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search, Dijkstra, A* and topological ordering over any {@link Graph}, with buffers that are kept between searches: one instance runs any
+ * number of searches and only allocates when it meets a bigger graph than before. An instance isn't thread safe, use one per thread.
+ * <p>
+ * Results stay available until the next search: the distance and parent of every node reached, and the nodes in the order they were settled (by distance,
+ * for every search but the topological order). Ties are broken deterministically. Breadth-first search reaches nodes in source order and then edge order,
+ * so on a {@link GridGraph} it follows the grid's direction order. The heap based searches settle equally distant nodes by node number, lowest first unless
+ * {@link TieBreak#HIGHEST_NODE} is set; on a grid the lowest cell index is the first in reading order.
+ * <p>
+ * The visited buffer is stamped with a search number instead of being cleared, so starting a search costs nothing however big the graph.
+ */
+public class GraphSearch {
+    public enum TieBreak {
+        LOWEST_NODE, HIGHEST_NODE
+    }
+
+    public static final int UNREACHED = -1;
+
+    private static final long NODE_MASK = 0xffffffffL;
+
+    private TieBreak tieBreak = TieBreak.LOWEST_NODE;
+    private int stamp[] = new int[0];
+    // Nodes settled by a heap based search, stamped the same way
+    private int closed[] = new int[0];
+    private int searchId;
+    private int dist[] = new int[0];
+    private int parent[] = new int[0];
+    // Settled nodes, in order; doubles as the breadth-first queue
+    private int order[] = new int[0];
+    private int settled;
+    private final LongMinHeap heap = new LongMinHeap();
+
+    public TieBreak getTieBreak() {
+        return tieBreak;
+    }
+
+    public void setTieBreak(TieBreak tieBreak) {
+        this.tieBreak = tieBreak;
+    }
+
+    /**
+     * Makes room for a graph and starts a new search.
+     *
+     * @param graph Graph
+     */
+    private void begin(Graph graph) {
+        int size = graph.size();
+        if (stamp.length < size) {
+            stamp = new int[size];
+            closed = new int[size];
+            dist = new int[size];
+            parent = new int[size];
+            order = new int[size];
+            searchId = 0;
+        }
+        if (++searchId == 0) {
+            // Wrapped around, old stamps could pass for new ones
+            Arrays.fill(stamp, 0);
+            Arrays.fill(closed, 0);
+            searchId = 1;
+        }
+        settled = 0;
+        heap.clear();
+    }
+
+    /**
+     * Returns true if the last search reached a node.
+     *
+     * @param node Node
+     * @return
+     */
+    public boolean isReached(int node) {
+        return node >= 0 && node < stamp.length && stamp[node] == searchId;
+    }
+
+    /**
+     * Returns the distance of a node from the sources of the last search.
+     *
+     * @param node Node
+     * @return Distance, or {@link #UNREACHED}
+     */
+    public int distance(int node) {
+        return isReached(node) ? dist[node] : UNREACHED;
+    }
+
+    /**
+     * Returns the node a node was reached from in the last search.
+     *
+     * @param node Node
+     * @return Parent node, or -1 for a source or a node that wasn't reached
+     */
+    public int parent(int node) {
+        return isReached(node) ? parent[node] : -1;
+    }
+
+    /**
+     * Returns the number of nodes settled by the last search.
+     *
+     * @return
+     */
+    public int settledCount() {
+        return settled;
+    }
+
+    /**
+     * Returns the i-th node settled by the last search.
+     *
+     * @param i Position, less than settledCount()
+     * @return
+     */
+    public int settled(int i) {
+        return order[i];
+    }
+
+    /**
+     * Writes the path found by the last search from its source to a node.
+     *
+     * @param node Last node of the path
+     * @param path Destination, at least distance(node) + 1 long for unit weights
+     * @return Number of nodes written, source and node included, or 0 if the node wasn't reached
+     */
+    public int path(int node, int path[]) {
+        if (!isReached(node)) {
+            return 0;
+        }
+
+        int length = 0;
+        for (int n = node; n != -1; n = parent[n]) {
+            length++;
+        }
+        int i = length;
+        for (int n = node; n != -1; n = parent[n]) {
+            path[--i] = n;
+        }
+        return length;
+    }
+
+    private void reach(int node, int distance, int from) {
+        stamp[node] = searchId;
+        dist[node] = distance;
+        parent[node] = from;
+    }
+
+    /**
+     * Breadth-first search from a single source, counting every edge as 1.
+     *
+     * @param graph Graph
+     * @param source Source node
+     * @param target Node to stop at once reached, or -1 to reach everything
+     * @return Distance of the target, or {@link #UNREACHED} if it wasn't reached or there's no target
+     */
+    public int bfs(Graph graph, int source, int target) {
+        begin(graph);
+        reach(source, 0, -1);
+        order[settled++] = source;
+        return bfsFrom(graph, 0, target);
+    }
+
+    /**
+     * Breadth-first search from several sources at once, e.g. to find which source each node is closest to.
+     *
+     * @param graph Graph
+     * @param sources Source nodes
+     * @param count Number of sources
+     * @param target Node to stop at once reached, or -1 to reach everything
+     * @return Distance of the target, or {@link #UNREACHED} if it wasn't reached or there's no target
+     */
+    public int bfs(Graph graph, int sources[], int count, int target) {
+        begin(graph);
+        for (int i = 0; i < count; i++) {
+            if (!isReached(sources[i])) {
+                reach(sources[i], 0, -1);
+                order[settled++] = sources[i];
+            }
+        }
+        return bfsFrom(graph, 0, target);
+    }
+
+    private int bfsFrom(Graph graph, int head, int target) {
+        if (target >= 0 && isReached(target)) {
+            return dist[target];
+        }
+
+        while (head < settled) {
+            int node = order[head++];
+            int nextDist = dist[node] + 1;
+            for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                int next = graph.target(node, edge);
+                if (next < 0 || stamp[next] == searchId) {
+                    continue;
+                }
+
+                reach(next, nextDist, node);
+                order[settled++] = next;
+                if (next == target) {
+                    return nextDist;
+                }
+            }
+        }
+        return UNREACHED;
+    }
+
+    private long key(int priority, int node) {
+        return ((long) priority << 32) | ((tieBreak == TieBreak.LOWEST_NODE ? node : ~node) & NODE_MASK);
+    }
+
+    private int keyNode(long key) {
+        int node = (int) (key & NODE_MASK);
+        return tieBreak == TieBreak.LOWEST_NODE ? node : ~node;
+    }
+
+    /**
+     * Dijkstra's shortest paths from a source, over the edge weights.
+     *
+     * @param graph Graph
+     * @param source Source node
+     * @param target Node to stop at once settled, or -1 to settle everything
+     * @return Distance of the target, or {@link #UNREACHED} if it wasn't reached or there's no target
+     */
+    public int dijkstra(Graph graph, int source, int target) {
+        return bestFirst(graph, source, target, false);
+    }
+
+    /**
+     * A* from a source to a target, guided by the graph's estimate. Nodes are settled once, so the distance found is the shortest one as long as the estimate
+     * is consistent, as the Manhattan distance of a grid is.
+     *
+     * @param graph Graph
+     * @param source Source node
+     * @param target Target node
+     * @return Distance of the target, or {@link #UNREACHED} if it wasn't reached or there's no target
+     */
+    public int aStar(Graph graph, int source, int target) {
+        if (target < 0) {
+            throw new IllegalArgumentException("A* needs a target");
+        }
+        return bestFirst(graph, source, target, true);
+    }
+
+    private int bestFirst(Graph graph, int source, int target, boolean guided) {
+        begin(graph);
+        reach(source, 0, -1);
+        heap.push(key(guided ? graph.estimate(source, target) : 0, source));
+
+        while (!heap.isEmpty()) {
+            long key = heap.pop();
+            int node = keyNode(key);
+            int priority = (int) (key >>> 32);
+            // Entries are never updated in place; a settled node or an entry older than the node's distance is a stale duplicate
+            if (closed[node] == searchId || priority != dist[node] + (guided ? graph.estimate(node, target) : 0)) {
+                continue;
+            }
+            closed[node] = searchId;
+            order[settled++] = node;
+            if (node == target) {
+                return dist[node];
+            }
+
+            for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                int next = graph.target(node, edge);
+                if (next < 0 || closed[next] == searchId) {
+                    continue;
+                }
+
+                int nextDist = dist[node] + graph.weight(node, edge);
+                if (stamp[next] != searchId || nextDist < dist[next]) {
+                    reach(next, nextDist, node);
+                    heap.push(key(nextDist + (guided ? graph.estimate(next, target) : 0), next));
+                }
+            }
+        }
+        return UNREACHED;
+    }
+
+    /**
+     * Orders the nodes so every edge goes from an earlier node to a later one (Kahn's algorithm). Of the nodes ready at any time the lowest numbered one, or
+     * the highest with {@link TieBreak#HIGHEST_NODE}, comes first, so the order is unique. The order is read with settled(i); distances are the position
+     * in the order.
+     *
+     * @param graph Graph
+     * @return Number of nodes ordered, less than the graph size if the graph has a cycle
+     */
+    public int topologicalOrder(Graph graph) {
+        begin(graph);
+        int size = graph.size();
+        // Count incoming edges in the parent buffer, it has no other use here
+        Arrays.fill(parent, 0, size, 0);
+        for (int node = 0; node < size; node++) {
+            for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                int next = graph.target(node, edge);
+                if (next >= 0) {
+                    parent[next]++;
+                }
+            }
+        }
+        for (int node = 0; node < size; node++) {
+            if (parent[node] == 0) {
+                heap.push(key(0, node));
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            int node = keyNode(heap.pop());
+            stamp[node] = searchId;
+            dist[node] = settled;
+            order[settled++] = node;
+            for (int edge = graph.edgeStart(node), end = graph.edgeEnd(node); edge < end; edge++) {
+                int next = graph.target(node, edge);
+                if (next >= 0 && --parent[next] == 0) {
+                    heap.push(key(0, next));
+                }
+            }
+        }
+        // Parents hold counts, not nodes
+        for (int i = 0; i < settled; i++) {
+            parent[order[i]] = -1;
+        }
+        return settled;
+    }
+}
@@ -0,0 +1,108 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+/**
+ * Base of the flat, row-major grids. A cell is addressed either by its (x, y) coordinates or by its index, y * width + x. Indices are what hot loops should
+ * use: walking a row is walking consecutive indices, and stepping to a neighbor is adding a fixed offset.
+ * <p>
+ * Index based accessors don't check the coordinates, only the Java array bounds apply. Stepping left from x = 0 lands on the last cell of the previous row,
+ * so callers either know their walk stays inside the grid or keep a border of unused cells around it.
+ */
+public abstract class Grid {
+    protected final int width;
+    protected final int height;
+    // Index offsets of the 4 neighbors, in MoveDirection order
+    private final int offsets[];
+
+    protected Grid(int width, int height) {
+        if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Invalid grid size: %dx%d", width, height));
+        }
+
+        this.width = width;
+        this.height = height;
+
+        MoveDirection directions[] = MoveDirection.values();
+        offsets = new int[directions.length];
+        for (MoveDirection dir : directions) {
+            offsets[dir.ordinal()] = dir.getDy() * width + dir.getDx();
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of cells.
+     * 
+     * @return
+     */
+    public int size() {
+        return width * height;
+    }
+
+    /**
+     * Converts coordinates to a cell index.
+     * 
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Cell index
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Returns the x coordinate of a cell index.
+     * 
+     * @param idx Cell index
+     * @return
+     */
+    public int x(int idx) {
+        return idx % width;
+    }
+
+    /**
+     * Returns the y coordinate of a cell index.
+     * 
+     * @param idx Cell index
+     * @return
+     */
+    public int y(int idx) {
+        return idx / width;
+    }
+
+    /**
+     * Returns true if the coordinates are inside the grid.
+     * 
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Returns the index offset of the neighbor in the given direction.
+     * 
+     * @param dir Direction
+     * @return Value to add to a cell index to get to its neighbor
+     */
+    public int offset(MoveDirection dir) {
+        return offsets[dir.ordinal()];
+    }
+
+    /**
+     * Returns the index offsets of the 4 neighbors of a cell, in reading order (up, left, right, down). The array is shared, don't change it.
+     * 
+     * @return
+     */
+    public int[] neighborOffsets() {
+        return offsets;
+    }
+}
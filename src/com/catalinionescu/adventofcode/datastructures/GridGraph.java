@@ -0,0 +1,106 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The 4-connected cells of a {@link Grid} as a {@link Graph}, without building any edges: nodes are cell indices and the edges of a cell are its neighbors in
+ * the given direction order, reading order (up, left, right, down) by default. Moves off the grid or onto a cell that isn't passable lead nowhere.
+ * <p>
+ * The passable test is asked again on every search, so it can look at state that changes between searches, such as units standing on cells.
+ */
+public class GridGraph implements Graph {
+    private final Grid grid;
+    private final int width;
+    private final int height;
+    private final IntPredicate passable;
+    private final IntUnaryOperator enterCost;
+    private final MoveDirection directions[];
+    // Per edge slot, in direction order
+    private final int dx[];
+    private final int dy[];
+    private final int offsets[];
+
+    public GridGraph(Grid grid, IntPredicate passable) {
+        this(grid, passable, null, MoveDirection.values());
+    }
+
+    /**
+     * Creates a grid graph.
+     *
+     * @param grid Grid
+     * @param passable Tells whether a cell index can be entered
+     * @param enterCost Cost of entering a cell index, at least 1 so the Manhattan estimate stays a lower bound; null for a cost of 1 everywhere
+     * @param directions Order the neighbors of a cell are visited in, which decides between equally good moves
+     */
+    public GridGraph(Grid grid, IntPredicate passable, IntUnaryOperator enterCost, MoveDirection directions[]) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.passable = passable;
+        this.enterCost = enterCost;
+        this.directions = directions.clone();
+
+        dx = new int[directions.length];
+        dy = new int[directions.length];
+        offsets = new int[directions.length];
+        for (int i = 0; i < directions.length; i++) {
+            dx[i] = directions[i].getDx();
+            dy[i] = directions[i].getDy();
+            offsets[i] = grid.offset(directions[i]);
+        }
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the direction an edge of a cell goes in.
+     *
+     * @param edge Edge
+     * @return
+     */
+    public MoveDirection direction(int edge) {
+        return directions[edge % directions.length];
+    }
+
+    @Override
+    public int size() {
+        return width * height;
+    }
+
+    @Override
+    public int edgeStart(int node) {
+        return node * directions.length;
+    }
+
+    @Override
+    public int edgeEnd(int node) {
+        return (node + 1) * directions.length;
+    }
+
+    @Override
+    public int target(int node, int edge) {
+        int slot = edge - node * directions.length;
+        int x = node % width + dx[slot];
+        int y = node / width + dy[slot];
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+
+        int next = node + offsets[slot];
+        return passable.test(next) ? next : -1;
+    }
+
+    @Override
+    public int weight(int node, int edge) {
+        return enterCost == null ? 1 : enterCost.applyAsInt(target(node, edge));
+    }
+
+    @Override
+    public int estimate(int from, int to) {
+        // Manhattan distance
+        return Math.abs(from % width - to % width) + Math.abs(from / width - to / width);
+    }
+}
@@ -0,0 +1,67 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sorting for int arrays in an order given by a comparator, which Arrays.sort() only offers for boxed values. Mostly meant for sorting indices by whatever
+ * they point at, e.g. positions by several keys held in other arrays.
+ */
+public final class IntArrays {
+    // Runs this short are sorted by insertion before being merged
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private IntArrays() {
+    }
+
+    /**
+     * Sorts part of an array. The sort is stable: values the comparator deems equal keep their order. O(n log n), with a temporary buffer as long as the
+     * part being sorted.
+     *
+     * @param values Array to sort
+     * @param from First position to sort
+     * @param to One past the last position to sort
+     * @param comparator Compares two values, negative, 0 or positive like a Comparator
+     */
+    public static void sort(int values[], int from, int to, IntBinaryOperator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+
+        int buffer[] = new int[to - from];
+        mergeSort(values, buffer, from, to, comparator);
+    }
+
+    private static void mergeSort(int values[], int buffer[], int from, int to, IntBinaryOperator comparator) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = values[i];
+                int j = i - 1;
+                while (j >= from && comparator.applyAsInt(values[j], value) > 0) {
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                values[j + 1] = value;
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(values, buffer, from, mid, comparator);
+        mergeSort(values, buffer, mid, to, comparator);
+        if (comparator.applyAsInt(values[mid - 1], values[mid]) <= 0) {
+            // Already in order
+            return;
+        }
+
+        // Only the left run moves to the buffer, the right one is merged in place
+        int length = mid - from;
+        System.arraycopy(values, from, buffer, 0, length);
+        int left = 0, right = mid, out = from;
+        while (left < length && right < to) {
+            values[out++] = comparator.applyAsInt(buffer[left], values[right]) <= 0 ? buffer[left++] : values[right++];
+        }
+        while (left < length) {
+            values[out++] = buffer[left++];
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Flat, row-major grid of int values. See {@link Grid} for the addressing rules.
+ */
+public class IntGrid extends Grid {
+    private final int cells[];
+
+    public IntGrid(int width, int height) {
+        super(width, height);
+        cells = new int[width * height];
+    }
+
+    public int get(int idx) {
+        return cells[idx];
+    }
+
+    public int get(int x, int y) {
+        return cells[y * width + x];
+    }
+
+    public void set(int idx, int value) {
+        cells[idx] = value;
+    }
+
+    public void set(int x, int y, int value) {
+        cells[y * width + x] = value;
+    }
+
+    /**
+     * Adds a value to a cell.
+     * 
+     * @param idx Cell index
+     * @param delta Value to add
+     * @return New cell value
+     */
+    public int add(int idx, int delta) {
+        return cells[idx] += delta;
+    }
+
+    /**
+     * Sets all cells to the same value.
+     * 
+     * @param value Value
+     */
+    public void fill(int value) {
+        Arrays.fill(cells, value);
+    }
+
+    /**
+     * Sets all cells of a rectangle to the same value.
+     * 
+     * @param x Left column of the rectangle
+     * @param y Top row of the rectangle
+     * @param rectWidth Rectangle width
+     * @param rectHeight Rectangle height
+     * @param value Value
+     */
+    public void fill(int x, int y, int rectWidth, int rectHeight, int value) {
+        for (int row = y, last = y + rectHeight; row < last; row++) {
+            int start = row * width + x;
+            Arrays.fill(cells, start, start + rectWidth, value);
+        }
+    }
+
+    /**
+     * Copies all cells of another grid of the same size into this one.
+     * 
+     * @param other Source grid
+     */
+    public void copyFrom(IntGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException(String.format("Can't copy a %dx%d grid into a %dx%d one", other.width, other.height, width, height));
+        }
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    }
+
+    /**
+     * Returns the backing array, for loops that want to walk the cells directly.
+     * 
+     * @return
+     */
+    public int[] cells() {
+        return cells;
+    }
+}
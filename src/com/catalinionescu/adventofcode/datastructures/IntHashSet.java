@@ -0,0 +1,190 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Set of int values, stored in an open addressing table without boxing. See {@link PrimitiveHashing} for the table layout.
+ */
+public class IntHashSet {
+    private final float loadFactor;
+    private int keys[];
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasZero;
+
+    public IntHashSet() {
+        this(PrimitiveHashing.DEFAULT_EXPECTED_SIZE, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntHashSet(int expectedSize) {
+        this(expectedSize, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a set sized to hold the expected number of values without growing.
+     *
+     * @param expectedSize Expected number of values
+     * @param loadFactor Fraction of the table that may be used before it grows, between 0 and 1 exclusive
+     */
+    public IntHashSet(int expectedSize, float loadFactor) {
+        PrimitiveHashing.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(PrimitiveHashing.capacityFor(expectedSize, loadFactor));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity, loadFactor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns true if the set holds the value.
+     *
+     * @param value Value
+     * @return
+     */
+    public boolean contains(int value) {
+        if (value == 0) {
+            return hasZero;
+        }
+
+        for (int slot = PrimitiveHashing.mix(value) & mask;; slot = (slot + 1) & mask) {
+            if (keys[slot] == value) {
+                return true;
+            }
+            if (keys[slot] == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value Value
+     * @return True if the value wasn't in the set already
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = PrimitiveHashing.mix(value) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = value;
+        if (++size > threshold) {
+            rehash(PrimitiveHashing.grow(keys.length));
+        }
+        return true;
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value Value
+     * @return True if the value was in the set
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+
+        for (int slot = PrimitiveHashing.mix(value) & mask;; slot = (slot + 1) & mask) {
+            if (keys[slot] == 0) {
+                return false;
+            }
+            if (keys[slot] == value) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Fills the hole left by a removed key by moving back the keys of the same probe run that can't be found anymore otherwise.
+     *
+     * @param hole Slot of the removed key
+     */
+    private void shiftBack(int hole) {
+        int key;
+        for (int slot = (hole + 1) & mask; (key = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            int home = PrimitiveHashing.mix(key) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = key;
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    /**
+     * Removes all values. The table keeps its capacity, so a set cleared and refilled in a loop doesn't allocate.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            hasZero = false;
+            size = 0;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int oldKeys[] = keys;
+        allocate(capacity);
+        for (int key : oldKeys) {
+            if (key != 0) {
+                int slot = PrimitiveHashing.mix(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    /**
+     * Returns the values in the set, in no particular order.
+     *
+     * @return
+     */
+    public int[] toArray() {
+        int result[] = new int[size];
+        int count = 0;
+        if (hasZero) {
+            result[count++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,283 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from int keys to objects, stored in an open addressing table without boxing the keys. See {@link PrimitiveHashing} for the table layout. Null values
+ * aren't allowed, so that {@link #get(int)} returning null always means the key isn't mapped.
+ *
+ * @param <V> Value type
+ */
+public class IntObjectMap<V> {
+    /**
+     * Receives the entries of a map, see {@link IntObjectMap#forEach(EntryVisitor)}.
+     *
+     * @param <V> Value type
+     */
+    @FunctionalInterface
+    public interface EntryVisitor<V> {
+        void visit(int key, V value);
+    }
+
+    private final float loadFactor;
+    private int keys[];
+    private Object values[];
+    private int mask;
+    private int threshold;
+    private int size;
+    private V zeroValue;
+
+    public IntObjectMap() {
+        this(PrimitiveHashing.DEFAULT_EXPECTED_SIZE, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        this(expectedSize, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a map sized to hold the expected number of entries without growing.
+     *
+     * @param expectedSize Expected number of entries
+     * @param loadFactor Fraction of the table that may be used before it grows, between 0 and 1 exclusive
+     */
+    public IntObjectMap(int expectedSize, float loadFactor) {
+        PrimitiveHashing.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(PrimitiveHashing.capacityFor(expectedSize, loadFactor));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity, loadFactor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key Key
+     * @return Value, or null if the key isn't mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+
+        for (int slot = PrimitiveHashing.mix(key) & mask;; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            if (keys[slot] == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key Key
+     * @param value Value, not null
+     * @return Previous value, or null if the key wasn't mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values aren't allowed");
+        }
+
+        V previous;
+        if (key == 0) {
+            previous = zeroValue;
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        int slot = PrimitiveHashing.mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(PrimitiveHashing.grow(keys.length));
+        }
+        return null;
+    }
+
+    /**
+     * Maps a key to a value only if the key isn't mapped yet.
+     *
+     * @param key Key
+     * @param value Value, not null
+     * @return The value the key is mapped to after the call
+     */
+    public V putIfAbsent(int key, V value) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key Key
+     * @return Removed value, or null if the key wasn't mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        V previous;
+        if (key == 0) {
+            previous = zeroValue;
+            if (previous != null) {
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+
+        for (int slot = PrimitiveHashing.mix(key) & mask;; slot = (slot + 1) & mask) {
+            if (keys[slot] == 0) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                previous = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * Fills the hole left by a removed key by moving back the entries of the same probe run that can't be found anymore otherwise.
+     *
+     * @param hole Slot of the removed key
+     */
+    private void shiftBack(int hole) {
+        int key;
+        for (int slot = (hole + 1) & mask; (key = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            int home = PrimitiveHashing.mix(key) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = key;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+    }
+
+    /**
+     * Removes all entries. The table keeps its capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, null);
+            zeroValue = null;
+            size = 0;
+        }
+    }
+
+    private void rehash(int capacity) {
+        int oldKeys[] = keys;
+        Object oldValues[] = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = PrimitiveHashing.mix(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Hands every entry to the visitor, in no particular order. The map must not be changed while visiting.
+     *
+     * @param visitor Visitor
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryVisitor<? super V> visitor) {
+        if (zeroValue != null) {
+            visitor.visit(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.visit(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a view of the values, in no particular order. The map must not be changed while iterating.
+     *
+     * @return
+     */
+    public Iterable<V> values() {
+        return () -> new Iterator<V>() {
+            // -1 stands for the zero key, kept outside the table
+            private int slot = advance(zeroValue != null ? -2 : -1);
+
+            private int advance(int from) {
+                int i = from + 1;
+                if (i < 0) {
+                    return i;
+                }
+                while (i < keys.length && keys[i] == 0) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < keys.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (slot >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                V value = slot < 0 ? zeroValue : (V) values[slot];
+                slot = advance(slot);
+                return value;
+            }
+        };
+    }
+}
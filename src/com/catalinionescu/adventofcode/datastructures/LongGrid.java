@@ -0,0 +1,88 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Flat, row-major grid of long values. See {@link Grid} for the addressing rules.
+ */
+public class LongGrid extends Grid {
+    private final long cells[];
+
+    public LongGrid(int width, int height) {
+        super(width, height);
+        cells = new long[width * height];
+    }
+
+    public long get(int idx) {
+        return cells[idx];
+    }
+
+    public long get(int x, int y) {
+        return cells[y * width + x];
+    }
+
+    public void set(int idx, long value) {
+        cells[idx] = value;
+    }
+
+    public void set(int x, int y, long value) {
+        cells[y * width + x] = value;
+    }
+
+    /**
+     * Adds a value to a cell.
+     * 
+     * @param idx Cell index
+     * @param delta Value to add
+     * @return New cell value
+     */
+    public long add(int idx, long delta) {
+        return cells[idx] += delta;
+    }
+
+    /**
+     * Sets all cells to the same value.
+     * 
+     * @param value Value
+     */
+    public void fill(long value) {
+        Arrays.fill(cells, value);
+    }
+
+    /**
+     * Sets all cells of a rectangle to the same value.
+     * 
+     * @param x Left column of the rectangle
+     * @param y Top row of the rectangle
+     * @param rectWidth Rectangle width
+     * @param rectHeight Rectangle height
+     * @param value Value
+     */
+    public void fill(int x, int y, int rectWidth, int rectHeight, long value) {
+        for (int row = y, last = y + rectHeight; row < last; row++) {
+            int start = row * width + x;
+            Arrays.fill(cells, start, start + rectWidth, value);
+        }
+    }
+
+    /**
+     * Copies all cells of another grid of the same size into this one.
+     * 
+     * @param other Source grid
+     */
+    public void copyFrom(LongGrid other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException(String.format("Can't copy a %dx%d grid into a %dx%d one", other.width, other.height, width, height));
+        }
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    }
+
+    /**
+     * Returns the backing array, for loops that want to walk the cells directly.
+     * 
+     * @return
+     */
+    public long[] cells() {
+        return cells;
+    }
+}
@@ -0,0 +1,162 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to any number of int values each, stored in an open addressing table without boxing. See {@link PrimitiveHashing} for the table
+ * layout. Entries are kept in the order they're added and the table only holds their positions, so any key, 0 included, can be stored, and the values of a
+ * key come back in the order they were added, which survives the table growing.
+ * <p>
+ * Values are walked with a cursor: {@link #first(long)} gives the first entry of a key and {@link #next(long, int)} the following ones, e.g.
+ * <pre>
+ * for (int entry = map.first(key); entry >= 0; entry = map.next(key, entry)) {
+ *     int value = map.valueAt(entry);
+ * }
+ * </pre>
+ */
+public class LongIntMultimap {
+    private final float loadFactor;
+    // Entries, in the order they were added
+    private long entryKeys[];
+    private int entryValues[];
+    private int size;
+    // Table of entry positions + 1, 0 marks a free slot
+    private int table[];
+    private int mask;
+    private int threshold;
+
+    public LongIntMultimap() {
+        this(PrimitiveHashing.DEFAULT_EXPECTED_SIZE, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongIntMultimap(int expectedSize) {
+        this(expectedSize, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a map sized to hold the expected number of entries without growing.
+     *
+     * @param expectedSize Expected number of entries, all keys together
+     * @param loadFactor Fraction of the table that may be used before it grows, between 0 and 1 exclusive
+     */
+    public LongIntMultimap(int expectedSize, float loadFactor) {
+        PrimitiveHashing.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        int capacity = PrimitiveHashing.capacityFor(expectedSize, loadFactor);
+        entryKeys = new long[Math.max(1, expectedSize)];
+        entryValues = new int[entryKeys.length];
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity, loadFactor);
+    }
+
+    /**
+     * Returns the number of entries, all keys together.
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot of the first entry with a key at or after a slot, or -1 if the key has no more entries.
+     */
+    private int scan(long key, int slot) {
+        for (;; slot = (slot + 1) & mask) {
+            if (table[slot] == 0) {
+                return -1;
+            }
+            if (entryKeys[table[slot] - 1] == key) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Returns a cursor on the first value of a key.
+     *
+     * @param key Key
+     * @return Cursor for {@link #valueAt(int)} and {@link #next(long, int)}, or -1 if the key has no values
+     */
+    public int first(long key) {
+        return scan(key, PrimitiveHashing.mix(key) & mask);
+    }
+
+    /**
+     * Moves a cursor to the next value of the same key.
+     *
+     * @param key Key the cursor was obtained for
+     * @param cursor Cursor
+     * @return Cursor on the next value, or -1 if there are no more
+     */
+    public int next(long key, int cursor) {
+        return scan(key, (cursor + 1) & mask);
+    }
+
+    /**
+     * Returns the value a cursor is on.
+     *
+     * @param cursor Cursor
+     * @return
+     */
+    public int valueAt(int cursor) {
+        return entryValues[table[cursor] - 1];
+    }
+
+    /**
+     * Adds a value to a key, after the values it has already, even if one of them is the same.
+     *
+     * @param key Key
+     * @param value Value
+     */
+    public void put(long key, int value) {
+        if (size == entryKeys.length) {
+            entryKeys = Arrays.copyOf(entryKeys, size * 2);
+            entryValues = Arrays.copyOf(entryValues, size * 2);
+        }
+        entryKeys[size] = key;
+        entryValues[size] = value;
+        insert(key, size);
+        if (++size > threshold) {
+            rehash(PrimitiveHashing.grow(table.length));
+        }
+    }
+
+    /**
+     * Puts an entry in the first free slot of its probe sequence, which is after every entry of the same key added before it.
+     */
+    private void insert(long key, int entry) {
+        int slot = PrimitiveHashing.mix(key) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    /**
+     * Removes all entries. The table keeps its capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(table, 0);
+            size = 0;
+        }
+    }
+
+    private void rehash(int capacity) {
+        allocate(capacity);
+        // Adding the entries back in order keeps the values of every key in order
+        for (int i = 0; i < size; i++) {
+            insert(entryKeys[i], i);
+        }
+    }
+}
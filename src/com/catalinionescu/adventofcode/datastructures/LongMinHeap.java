@@ -0,0 +1,98 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of long values, stored in a plain array without boxing. Searches pack a priority and a node into one value, priority in the high bits,
+ * so equal priorities come out in node order. The array only grows, so a heap that's cleared and reused doesn't allocate once it's big enough.
+ */
+public class LongMinHeap {
+    private long heap[];
+    private int size;
+
+    public LongMinHeap() {
+        this(16);
+    }
+
+    public LongMinHeap(int initialCapacity) {
+        heap = new long[Math.max(1, initialCapacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value Value
+     */
+    public void push(long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+
+        // Sift up
+        int idx = size++;
+        while (idx > 0) {
+            int parent = (idx - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[idx] = heap[parent];
+            idx = parent;
+        }
+        heap[idx] = value;
+    }
+
+    /**
+     * Returns the smallest value without removing it.
+     *
+     * @return
+     */
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the smallest value.
+     *
+     * @return
+     */
+    public long pop() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+
+        long top = heap[0];
+        long last = heap[--size];
+        // Sift the last value down from the root
+        int idx = 0;
+        int half = size >>> 1;
+        while (idx < half) {
+            int child = 2 * idx + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[idx] = heap[child];
+            idx = child;
+        }
+        heap[idx] = last;
+        return top;
+    }
+}
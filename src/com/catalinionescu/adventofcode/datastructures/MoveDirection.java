@@ -8,18 +8,40 @@ package com.catalinionescu.adventofcode.datastructures;
  *
  */
 public enum MoveDirection {
-    UP('^'),
-    LEFT('<'),
-    RIGHT('>'),
-    DOWN('v');
+    UP('^', 0, -1),
+    LEFT('<', -1, 0),
+    RIGHT('>', 1, 0),
+    DOWN('v', 0, 1);
 
     private final char ch;
+    private final int dx;
+    private final int dy;
 
-    MoveDirection(char ch) {
+    MoveDirection(char ch, int dx, int dy) {
         this.ch = ch;
+        this.dx = dx;
+        this.dy = dy;
     }
 
     public char getCh() {
         return ch;
     }
+
+    /**
+     * Returns the change in x coordinate when moving one step in this direction.
+     * 
+     * @return
+     */
+    public int getDx() {
+        return dx;
+    }
+
+    /**
+     * Returns the change in y coordinate when moving one step in this direction. y grows downwards.
+     * 
+     * @return
+     */
+    public int getDy() {
+        return dy;
+    }
 }
\ No newline at end of file
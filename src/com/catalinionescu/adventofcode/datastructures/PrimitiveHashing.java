@@ -0,0 +1,73 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+/**
+ * Hashing and sizing rules shared by the open addressing sets and maps.
+ * <p>
+ * Tables have a power of two capacity and use linear probing. Key 0 marks a free slot, so a 0 key is kept aside in a flag instead of the table. Keys are
+ * scrambled before picking a slot, since puzzle keys are often small, consecutive or strided numbers that would otherwise pile up in a few slots.
+ */
+final class PrimitiveHashing {
+    static final int DEFAULT_EXPECTED_SIZE = 16;
+    static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private PrimitiveHashing() {
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static void checkLoadFactor(float loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1, exclusive: " + loadFactor);
+        }
+    }
+
+    /**
+     * Returns the smallest power of two capacity that holds the expected number of keys without going over the load factor.
+     *
+     * @param expectedSize Expected number of keys
+     * @param loadFactor Load factor
+     * @return
+     */
+    static int capacityFor(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size can't be negative: " + expectedSize);
+        }
+
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) loadFactor) + 1;
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return Math.max(2, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    static int threshold(int capacity, float loadFactor) {
+        return Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Returns the most keys a table can hold at the given load factor, however large it grows.
+     *
+     * @param loadFactor Load factor
+     * @return
+     */
+    static int maxSize(float loadFactor) {
+        return threshold(MAX_CAPACITY, loadFactor);
+    }
+
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Hash table is full");
+        }
+        return capacity << 1;
+    }
+}
@@ -0,0 +1,217 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of long values kept as bitmaps over the ranges actually visited, roaring-style: the high bits of a value pick a segment of 65536 consecutive values
+ * and the low bits a bit in that segment's bitmap. Segments are only allocated the first time one of their values is added, and found through an open
+ * addressing table (see {@link PrimitiveHashing}), so memory follows the span of values visited, 8 KB per segment touched, however many there are in it.
+ * <p>
+ * That suits values that wander over a range and fill it densely, such as running sums, where a hash set would pay 16 bytes or more per value. Negative
+ * values are fine, segments are taken on floor division. The segment used last is remembered, so values close to each other skip the table lookup.
+ */
+public class SegmentedBitSet {
+    private static final int SEGMENT_BITS = 16;
+    private static final int WORDS_PER_SEGMENT = (1 << SEGMENT_BITS) / Long.SIZE;
+    private static final int LOW_MASK = (1 << SEGMENT_BITS) - 1;
+
+    // Segment keys, stored with the sign bit flipped so that no key is ever 0, which marks a free slot
+    private long keys[];
+    // Position of each segment in the segment list
+    private int slots[];
+    private int mask;
+    private int threshold;
+    private long segments[][];
+    private int segmentCount;
+    private long size;
+
+    private long lastKey;
+    private long lastSegment[];
+
+    public SegmentedBitSet() {
+        this(PrimitiveHashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a set sized for a number of segments.
+     *
+     * @param expectedSegments Expected number of 65536 value ranges visited
+     */
+    public SegmentedBitSet(int expectedSegments) {
+        int capacity = PrimitiveHashing.capacityFor(expectedSegments, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+        keys = new long[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+        segments = new long[Math.max(1, expectedSegments)][];
+    }
+
+    private static long keyOf(long value) {
+        return (value >> SEGMENT_BITS) ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Finds the segment holding a value.
+     *
+     * @param key Stored segment key
+     * @return Segment bitmap, or null if it doesn't exist
+     */
+    private long[] segment(long key) {
+        if (lastSegment != null && key == lastKey) {
+            return lastSegment;
+        }
+
+        for (int slot = PrimitiveHashing.mix(key) & mask;; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                lastKey = key;
+                lastSegment = segments[slots[slot]];
+                return lastSegment;
+            }
+            if (keys[slot] == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Finds or creates the segment holding a value.
+     *
+     * @param key Stored segment key
+     * @return Segment bitmap
+     */
+    private long[] segmentForWrite(long key) {
+        if (lastSegment != null && key == lastKey) {
+            return lastSegment;
+        }
+
+        int slot = PrimitiveHashing.mix(key) & mask;
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                lastKey = key;
+                lastSegment = segments[slots[slot]];
+                return lastSegment;
+            }
+        }
+
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+        }
+        long segment[] = new long[WORDS_PER_SEGMENT];
+        segments[segmentCount] = segment;
+        keys[slot] = key;
+        slots[slot] = segmentCount++;
+        if (segmentCount > threshold) {
+            rehash(PrimitiveHashing.grow(keys.length));
+        }
+
+        lastKey = key;
+        lastSegment = segment;
+        return segment;
+    }
+
+    private void rehash(int capacity) {
+        long oldKeys[] = keys;
+        int oldSlots[] = slots;
+        keys = new long[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = PrimitiveHashing.mix(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    /**
+     * Returns true if the set holds the value.
+     *
+     * @param value Value
+     * @return
+     */
+    public boolean contains(long value) {
+        long segment[] = segment(keyOf(value));
+        int bit = (int) value & LOW_MASK;
+        return segment != null && (segment[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value Value
+     * @return True if the value wasn't in the set already
+     */
+    public boolean add(long value) {
+        long segment[] = segmentForWrite(keyOf(value));
+        int bit = (int) value & LOW_MASK;
+        long word = segment[bit >>> 6];
+        long flag = 1L << bit;
+        if ((word & flag) != 0) {
+            return false;
+        }
+
+        segment[bit >>> 6] = word | flag;
+        size++;
+        return true;
+    }
+
+    /**
+     * Passes every value in the set to an action, in no particular order.
+     *
+     * @param action Action
+     */
+    public void forEach(LongConsumer action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == 0) {
+                continue;
+            }
+
+            long base = (keys[slot] ^ Long.MIN_VALUE) << SEGMENT_BITS;
+            long segment[] = segments[slots[slot]];
+            for (int word = 0; word < segment.length; word++) {
+                for (long bits = segment[word]; bits != 0; bits &= bits - 1) {
+                    action.accept(base + (word << 6) + Long.numberOfTrailingZeros(bits));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of segments allocated, each holding 65536 bits.
+     *
+     * @return
+     */
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Empties the set and lets go of its segments.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(segments, 0, segmentCount, null);
+        segmentCount = 0;
+        size = 0;
+        lastSegment = null;
+    }
+}
@@ -0,0 +1,239 @@
+package com.catalinionescu.adventofcode.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * An unbounded plane of int values, 0 by default, for points spread over coordinate ranges too large for a {@link Grid}. The plane is cut in 16x16 chunks
+ * and only the chunks something was written to exist: their keys sit in an open addressing table (see {@link PrimitiveHashing}) and their cells in one
+ * flat pool, so there's no object per point or per chunk and neighboring points share a chunk.
+ * <p>
+ * The plane also keeps the bounding box of the cells written with a non-zero value.
+ */
+public class SpatialHash {
+    private static final int CHUNK_BITS = 4;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int CHUNK_CELLS = 1 << (2 * CHUNK_BITS);
+
+    // Chunk keys are packed chunk coordinates, which are never 0, so 0 marks a free slot
+    private long chunkKeys[];
+    // Position of each chunk in the cell pool
+    private int chunkSlots[];
+    private int mask;
+    private int threshold;
+    private int chunkCount;
+    private int cells[];
+
+    private int minX = Integer.MAX_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+
+    public SpatialHash() {
+        this(PrimitiveHashing.DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a plane sized for a number of chunks.
+     *
+     * @param expectedChunks Expected number of 16x16 chunks holding values
+     */
+    public SpatialHash(int expectedChunks) {
+        int capacity = PrimitiveHashing.capacityFor(expectedChunks, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+        chunkKeys = new long[capacity];
+        chunkSlots = new int[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+        cells = new int[Math.max(1, expectedChunks) * CHUNK_CELLS];
+    }
+
+    private static int cell(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+    }
+
+    /**
+     * Finds the pool offset of the chunk holding a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Offset of the chunk's first cell, or -1 if the chunk doesn't exist
+     */
+    private int chunk(int x, int y) {
+        long key = Coordinates.pack(x >> CHUNK_BITS, y >> CHUNK_BITS);
+        for (int slot = PrimitiveHashing.mix(key) & mask;; slot = (slot + 1) & mask) {
+            if (chunkKeys[slot] == key) {
+                return chunkSlots[slot];
+            }
+            if (chunkKeys[slot] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Finds or creates the chunk holding a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Offset of the chunk's first cell
+     */
+    private int chunkForWrite(int x, int y) {
+        long key = Coordinates.pack(x >> CHUNK_BITS, y >> CHUNK_BITS);
+        int slot = PrimitiveHashing.mix(key) & mask;
+        for (; chunkKeys[slot] != 0; slot = (slot + 1) & mask) {
+            if (chunkKeys[slot] == key) {
+                return chunkSlots[slot];
+            }
+        }
+
+        if ((chunkCount + 1) * CHUNK_CELLS > cells.length) {
+            cells = Arrays.copyOf(cells, cells.length * 2);
+        }
+        int offset = chunkCount++ * CHUNK_CELLS;
+        chunkKeys[slot] = key;
+        chunkSlots[slot] = offset;
+        if (chunkCount > threshold) {
+            rehash(PrimitiveHashing.grow(chunkKeys.length));
+        }
+        return offset;
+    }
+
+    private void rehash(int capacity) {
+        long oldKeys[] = chunkKeys;
+        int oldSlots[] = chunkSlots;
+        chunkKeys = new long[capacity];
+        chunkSlots = new int[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity, PrimitiveHashing.DEFAULT_LOAD_FACTOR);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = PrimitiveHashing.mix(oldKeys[i]) & mask;
+                while (chunkKeys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                chunkKeys[slot] = oldKeys[i];
+                chunkSlots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    private void extendBounds(int x, int y) {
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+    }
+
+    /**
+     * Returns the value of a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Value, 0 if never set
+     */
+    public int get(int x, int y) {
+        int chunk = chunk(x, y);
+        return chunk < 0 ? 0 : cells[chunk + cell(x, y)];
+    }
+
+    /**
+     * Returns true if a point holds a non-zero value.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return
+     */
+    public boolean contains(int x, int y) {
+        return get(x, y) != 0;
+    }
+
+    /**
+     * Sets the value of a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param value Value
+     */
+    public void set(int x, int y, int value) {
+        if (value == 0) {
+            int chunk = chunk(x, y);
+            if (chunk >= 0) {
+                cells[chunk + cell(x, y)] = 0;
+            }
+            return;
+        }
+
+        // The chunk lookup may grow the pool, so it has to run before the pool is read
+        int idx = chunkForWrite(x, y) + cell(x, y);
+        cells[idx] = value;
+        extendBounds(x, y);
+    }
+
+    /**
+     * Adds to the value of a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param delta Value to add
+     * @return New value
+     */
+    public int add(int x, int y, int delta) {
+        int idx = chunkForWrite(x, y) + cell(x, y);
+        int value = cells[idx] += delta;
+        if (value != 0) {
+            extendBounds(x, y);
+        }
+        return value;
+    }
+
+    /**
+     * Resets every point to 0, keeping the memory for reuse.
+     */
+    public void clear() {
+        Arrays.fill(chunkKeys, 0);
+        Arrays.fill(cells, 0, chunkCount * CHUNK_CELLS, 0);
+        chunkCount = 0;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the number of chunks holding values.
+     *
+     * @return
+     */
+    public int chunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Returns true if no point was ever given a non-zero value since the plane was created or cleared.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return minX > maxX;
+    }
+
+    /**
+     * Returns the smallest x coordinate given a non-zero value. Bounds only grow: a point set back to 0 stays in them.
+     *
+     * @return
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+}
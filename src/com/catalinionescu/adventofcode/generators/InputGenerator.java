@@ -0,0 +1,20 @@
+package com.catalinionescu.adventofcode.generators;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+/**
+ * Produces valid puzzle inputs of any size, for measuring how the solvers scale well beyond the puzzle-sized inputs.
+ */
+public interface InputGenerator {
+    /**
+     * Writes an input. The same size and random sequence always give the same input.
+     * 
+     * @param size How big the input should be. What it counts (lines, nodes, tiles...) depends on the day, see each generator.
+     * @param random Source of randomness
+     * @param out Destination
+     * @throws IOException If the input can't be written
+     */
+    void generate(int size, SplittableRandom random, Writer out) throws IOException;
+}
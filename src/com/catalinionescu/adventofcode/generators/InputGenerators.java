@@ -0,0 +1,191 @@
+package com.catalinionescu.adventofcode.generators;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import com.catalinionescu.adventofcode.common.Log;
+
+/**
+ * Finds the input generators of a year, e.g. generators.y2018.Day003Generator, and writes generated inputs to files.
+ * <p>
+ * Other tools name their inputs with a spec: "puzzle" is the checked-in input of the day, "gen:SIZE" or "gen:SIZE:SEED" is a generated one. Generated inputs
+ * are written once to the directory set by the "aoc.generated.dir" system property (build/generated-inputs by default) and reused afterwards.
+ * <p>
+ * Usage: InputGenerators [--year year] day size [seed [file]]. Writes the input to the given file, or to the generated inputs directory.
+ */
+public class InputGenerators {
+    public static final String PUZZLE = "puzzle";
+    public static final String GENERATED_PREFIX = "gen:";
+
+    private static final String BASE_PACKAGE = "com.catalinionescu.adventofcode.generators";
+    private static final String DEFAULT_DIR = "build/generated-inputs";
+    private static final long DEFAULT_SEED = 1;
+    private static final int DEFAULT_YEAR = 2018;
+    private static final int MAX_DAY = 25;
+
+    private final int year;
+    private final Path dir;
+    // <day, generator class>, sorted by day
+    private final Map<Integer, Class<? extends InputGenerator>> generators = new TreeMap<>();
+
+    public InputGenerators(int year) {
+        this(year, Paths.get(System.getProperty("aoc.generated.dir", DEFAULT_DIR)));
+    }
+
+    public InputGenerators(int year, Path dir) {
+        this.year = year;
+        this.dir = dir;
+
+        for (int day = 1; day <= MAX_DAY; day++) {
+            try {
+                Class<?> clazz = Class.forName(String.format("%s.y%d.Day%03dGenerator", BASE_PACKAGE, year, day));
+                if (InputGenerator.class.isAssignableFrom(clazz)) {
+                    generators.put(day, clazz.asSubclass(InputGenerator.class));
+                }
+            } catch (ClassNotFoundException e) {
+                // No generator for that day
+            }
+        }
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Returns the days that have a generator, in ascending order.
+     *
+     * @return
+     */
+    public Set<Integer> getDays() {
+        return Collections.unmodifiableSet(generators.keySet());
+    }
+
+    public boolean hasGenerator(int day) {
+        return generators.containsKey(day);
+    }
+
+    /**
+     * Creates the generator of a day.
+     *
+     * @param day Day of the puzzle
+     * @return New generator instance
+     */
+    public InputGenerator create(int day) {
+        Class<? extends InputGenerator> clazz = generators.get(day);
+        if (clazz == null) {
+            throw new IllegalArgumentException(String.format("No input generator found for %d day %d", year, day));
+        }
+
+        try {
+            return clazz.getDeclaredConstructor().newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new IllegalStateException(String.format("Can't create input generator for %d day %d", year, day), e);
+        }
+    }
+
+    /**
+     * Writes a generated input to a file.
+     *
+     * @param day Day of the puzzle
+     * @param size Input size, see the day's generator
+     * @param seed Random seed
+     * @param file Destination file
+     * @throws IOException If the file can't be written
+     */
+    public void generate(int day, int size, long seed, Path file) throws IOException {
+        InputGenerator generator = create(day);
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        // Write aside and move in place, so a reader never sees a half written input
+        Path tmp = Files.createTempFile(parent, "input", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            generator.generate(size, new SplittableRandom(seed), writer);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns a generated input, generating it first if it isn't there yet.
+     *
+     * @param day Day of the puzzle
+     * @param size Input size, see the day's generator
+     * @param seed Random seed
+     * @return Input file
+     * @throws IOException If the input can't be generated
+     */
+    public Path generated(int day, int size, long seed) throws IOException {
+        Path file = dir.resolve(String.format("y%d/day%02d-%d-%d.txt", year, day, size, seed));
+        if (!Files.exists(file)) {
+            long start = System.nanoTime();
+            generate(day, size, seed, file);
+            Log.logInfoMessage("Generated %s in %.3f ms", file, (System.nanoTime() - start) / 1_000_000.0);
+        }
+        return file;
+    }
+
+    /**
+     * Resolves an input spec.
+     *
+     * @param day Day of the puzzle
+     * @param spec "puzzle", "gen:SIZE" or "gen:SIZE:SEED"
+     * @param puzzleInput The checked-in input of the day
+     * @return Input file
+     * @throws IOException If the input can't be generated
+     */
+    public Path resolve(int day, String spec, Path puzzleInput) throws IOException {
+        if (spec == null || PUZZLE.equals(spec)) {
+            return puzzleInput;
+        }
+        if (!spec.startsWith(GENERATED_PREFIX)) {
+            throw new IllegalArgumentException("Unknown input spec: " + spec);
+        }
+
+        String parts[] = spec.substring(GENERATED_PREFIX.length()).split(":");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Unknown input spec: " + spec);
+        }
+        int size = Integer.parseInt(parts[0]);
+        long seed = parts.length > 1 ? Long.parseLong(parts[1]) : DEFAULT_SEED;
+        return generated(day, size, seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int year = DEFAULT_YEAR;
+        int argIdx = 0;
+        if (args.length > 1 && args[0].equals("--year")) {
+            year = Integer.parseInt(args[1]);
+            argIdx = 2;
+        }
+        if (args.length - argIdx < 2) {
+            Log.logErrorMessage("Usage: InputGenerators [--year year] day size [seed [file]]");
+            return;
+        }
+
+        InputGenerators generators = new InputGenerators(year);
+        int day = Integer.parseInt(args[argIdx]);
+        int size = Integer.parseInt(args[argIdx + 1]);
+        long seed = args.length - argIdx > 2 ? Long.parseLong(args[argIdx + 2]) : DEFAULT_SEED;
+        if (args.length - argIdx > 3) {
+            Path file = Paths.get(args[argIdx + 3]);
+            generators.generate(day, size, seed, file);
+            Log.logInfoMessage("Generated %s", file);
+        } else {
+            generators.generated(day, size, seed);
+        }
+    }
+}
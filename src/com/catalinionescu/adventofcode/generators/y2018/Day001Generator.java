@@ -0,0 +1,51 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Frequency changes. Size is the number of changes, at least 2.
+ * <p>
+ * The last change is picked so that one pass drifts the frequency by less than the number of changes. Two of the frequencies reached during the first pass
+ * are then bound to be equal modulo the drift, so part 2 always finds a repeat, and the drift is kept large enough for that to take only a few passes.
+ */
+public class Day001Generator implements InputGenerator {
+    private static final int MAX_CHANGE = 20;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 2) {
+            throw new IllegalArgumentException("Day 1 needs at least 2 changes");
+        }
+
+        int changes[] = new int[size];
+        long frequency = 0;
+        long min = 0;
+        long max = 0;
+        for (int i = 0; i < size - 1; i++) {
+            changes[i] = random.nextInt(1, MAX_CHANGE + 1) * (random.nextBoolean() ? 1 : -1);
+            frequency += changes[i];
+            min = Math.min(min, frequency);
+            max = Math.max(max, frequency);
+        }
+
+        long drift = Math.max(1, Math.min((max - min) / 8, size - 1));
+        if (random.nextBoolean()) {
+            drift = -drift;
+        }
+        if (drift == frequency) {
+            // A zero change isn't valid input
+            drift = -drift;
+        }
+        changes[size - 1] = (int) (drift - frequency);
+
+        for (int change : changes) {
+            out.write(change >= 0 ? "+" : "");
+            out.write(Integer.toString(change));
+            out.write('\n');
+        }
+    }
+}
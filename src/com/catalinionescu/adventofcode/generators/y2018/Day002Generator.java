@@ -0,0 +1,45 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Box IDs. Size is the number of IDs, at least 2. Exactly one pair of IDs differs by a single letter, anywhere in the list; random IDs of 26 letters are
+ * practically never that close by chance.
+ */
+public class Day002Generator implements InputGenerator {
+    private static final int ID_LENGTH = 26;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 2) {
+            throw new IllegalArgumentException("Day 2 needs at least 2 box IDs");
+        }
+
+        int first = random.nextInt(size - 1);
+        int second = random.nextInt(first + 1, size);
+        char id[] = new char[ID_LENGTH];
+        char twin[] = new char[ID_LENGTH];
+
+        for (int i = 0; i < size; i++) {
+            if (i == second) {
+                // Same as the first one of the pair, but for one letter
+                int pos = random.nextInt(ID_LENGTH);
+                twin[pos] = (char) ('a' + (twin[pos] - 'a' + random.nextInt(1, 26)) % 26);
+                out.write(twin);
+            } else {
+                for (int pos = 0; pos < ID_LENGTH; pos++) {
+                    id[pos] = (char) ('a' + random.nextInt(26));
+                }
+                if (i == first) {
+                    System.arraycopy(id, 0, twin, 0, ID_LENGTH);
+                }
+                out.write(id);
+            }
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Fabric claims on the 1000x1000 inch fabric. Size is the number of claims, at least 1. One claim, at a random place in the list, sits on a patch of fabric no
+ * other claim may touch, so part 2 always has its answer however many claims pile up elsewhere.
+ */
+public class Day003Generator implements InputGenerator {
+    private static final int FABRIC_SIZE = 1000;
+    private static final int MIN_SIDE = 5;
+    private static final int MAX_SIDE = 30;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 3 needs at least 1 claim");
+        }
+
+        int intact = random.nextInt(1, size + 1);
+        int intactWidth = random.nextInt(MIN_SIDE, MAX_SIDE);
+        int intactHeight = random.nextInt(MIN_SIDE, MAX_SIDE);
+        int intactX = random.nextInt(FABRIC_SIZE - intactWidth + 1);
+        int intactY = random.nextInt(FABRIC_SIZE - intactHeight + 1);
+
+        int x, y, width, height;
+        for (int id = 1; id <= size; id++) {
+            if (id == intact) {
+                x = intactX;
+                y = intactY;
+                width = intactWidth;
+                height = intactHeight;
+            } else {
+                do {
+                    width = random.nextInt(MIN_SIDE, MAX_SIDE);
+                    height = random.nextInt(MIN_SIDE, MAX_SIDE);
+                    x = random.nextInt(FABRIC_SIZE - width + 1);
+                    y = random.nextInt(FABRIC_SIZE - height + 1);
+                } while (x < intactX + intactWidth && intactX < x + width && y < intactY + intactHeight && intactY < y + height);
+            }
+
+            out.write(String.format("#%d @ %d,%d: %dx%d\n", id, x, y, width, height));
+        }
+    }
+}
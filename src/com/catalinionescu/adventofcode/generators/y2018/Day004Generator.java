@@ -0,0 +1,89 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Guard shift records, in random order like the puzzle input. Size is the number of shifts. The records only carry month and day of 1518 and there's one
+ * shift per night, so there are at most 365 shifts; larger sizes are capped. Each shift has up to 10 naps, all within the midnight hour.
+ */
+public class Day004Generator implements InputGenerator {
+    private static final int MONTH_DAYS[] = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+    private static final int MAX_NAPS = 10;
+    // Naps start after the latest shift start, so that no two records of a night share a timestamp
+    private static final int FIRST_NAP_MINUTE = 5;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 4 needs at least 1 shift");
+        }
+
+        int shifts = Math.min(size, 365);
+        int guardIds[] = new int[Math.max(2, shifts / 10)];
+        for (int i = 0; i < guardIds.length; i++) {
+            // Distinct ids, spread out like the puzzle ones
+            guardIds[i] = (i + 1) * 100 + random.nextInt(100);
+        }
+
+        List<String> records = new ArrayList<>();
+        boolean minutes[] = new boolean[60];
+        int shiftsLeft = shifts;
+        int month = 1;
+        int day = 0;
+        for (int night = 0; night < 365 && shiftsLeft > 0; night++) {
+            day++;
+            if (day > MONTH_DAYS[month - 1]) {
+                day = 1;
+                month++;
+            }
+            // Spread the shifts evenly at random over the year
+            if (random.nextInt(365 - night) >= shiftsLeft) {
+                continue;
+            }
+            shiftsLeft--;
+
+            int guard = guardIds[random.nextInt(guardIds.length)];
+            if (night > 0 && random.nextBoolean()) {
+                // Shift begins a bit before midnight, on the day before
+                int beforeMonth = day > 1 ? month : month - 1;
+                int beforeDay = day > 1 ? day - 1 : MONTH_DAYS[month - 2];
+                records.add(String.format("[1518-%02d-%02d 23:%02d] Guard #%d begins shift", beforeMonth, beforeDay, random.nextInt(45, 60), guard));
+            } else {
+                records.add(String.format("[1518-%02d-%02d 00:%02d] Guard #%d begins shift", month, day, random.nextInt(FIRST_NAP_MINUTE), guard));
+            }
+
+            // Pick the distinct minutes the guard falls asleep and wakes up at, in pairs
+            int naps = random.nextInt(MAX_NAPS + 1);
+            Arrays.fill(minutes, false);
+            for (int picked = 0; picked < naps * 2;) {
+                int min = random.nextInt(FIRST_NAP_MINUTE, 60);
+                if (!minutes[min]) {
+                    minutes[min] = true;
+                    picked++;
+                }
+            }
+            boolean asleep = false;
+            for (int min = FIRST_NAP_MINUTE; min < 60; min++) {
+                if (minutes[min]) {
+                    records.add(String.format("[1518-%02d-%02d 00:%02d] %s", month, day, min, asleep ? "wakes up" : "falls asleep"));
+                    asleep = !asleep;
+                }
+            }
+        }
+
+        Collections.shuffle(records, new Random(random.nextLong()));
+        for (String record : records) {
+            out.write(record);
+            out.write('\n');
+        }
+    }
+}
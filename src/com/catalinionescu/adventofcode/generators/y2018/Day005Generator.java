@@ -0,0 +1,42 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * A polymer on a single line. Size is the number of units. About a third of the units are the reacting counterpart of the unit before, so the polymer keeps
+ * collapsing in chains like the puzzle one does.
+ */
+public class Day005Generator implements InputGenerator {
+    private static final int CHUNK = 8192;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 5 needs at least 1 unit");
+        }
+
+        char chunk[] = new char[CHUNK];
+        char prev = 'a';
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            char unit;
+            if (i > 0 && random.nextInt(3) == 0) {
+                unit = Character.isLowerCase(prev) ? Character.toUpperCase(prev) : Character.toLowerCase(prev);
+            } else {
+                unit = (char) ((random.nextBoolean() ? 'a' : 'A') + random.nextInt(26));
+            }
+            chunk[count++] = unit;
+            prev = unit;
+
+            if (count == CHUNK) {
+                out.write(chunk, 0, count);
+                count = 0;
+            }
+        }
+        out.write(chunk, 0, count);
+    }
+}
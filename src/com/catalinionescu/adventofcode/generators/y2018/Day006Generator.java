@@ -0,0 +1,41 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.datastructures.LongHashSet;
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Distinct coordinates. Size is the number of coordinates. They're spread over a square that grows with the square root of their number, keeping about the
+ * same density as the puzzle input, as long as part 2 still has a region: the total distance from the middle of the square to n coordinates is about n
+ * times half its side, so the side is kept under 10000 / n. Past about 700 coordinates they can't be packed that tightly and the region is empty.
+ */
+public class Day006Generator implements InputGenerator {
+    private static final int MIN_SPREAD = 300;
+    private static final int OFFSET = 40;
+    // Day 6's part 2 limit on the total distance to all coordinates
+    private static final int REGION_LIMIT = 10000;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 6 needs at least 1 coordinate");
+        }
+
+        int spread = Math.min(Math.max(MIN_SPREAD, (int) (Math.sqrt(size) * 45)), REGION_LIMIT / size);
+        // Leave at least twice as many locations as coordinates, so distinct ones are quick to find
+        spread = Math.max(spread, (int) Math.ceil(Math.sqrt(2.0 * size)));
+        LongHashSet used = new LongHashSet(size);
+        for (int i = 0; i < size; i++) {
+            int x, y;
+            do {
+                x = OFFSET + random.nextInt(spread);
+                y = OFFSET + random.nextInt(spread);
+            } while (!used.add(((long) x << 32) | y));
+
+            out.write(x + ", " + y + "\n");
+        }
+    }
+}
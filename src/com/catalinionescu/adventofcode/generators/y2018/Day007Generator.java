@@ -0,0 +1,49 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Step dependencies. Size is the number of dependencies.
+ * <p>
+ * Steps are single letters and their duration depends on the letter, so there can't be more than 26 steps; what grows is the number of dependencies
+ * between them, up to the 325 a fully ordered set of 26 steps has. Larger sizes are capped. Dependencies always follow a random order of the letters, so the
+ * graph has no cycles.
+ */
+public class Day007Generator implements InputGenerator {
+    private static final int STEPS = 26;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 7 needs at least 1 dependency");
+        }
+
+        Random shuffler = new Random(random.nextLong());
+        List<Character> order = new ArrayList<>();
+        for (char step = 'A'; step < 'A' + STEPS; step++) {
+            order.add(step);
+        }
+        Collections.shuffle(order, shuffler);
+
+        // Every pair (earlier, later) of the order is a candidate dependency
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < STEPS; i++) {
+            for (int j = i + 1; j < STEPS; j++) {
+                pairs.add(new int[] { i, j });
+            }
+        }
+        Collections.shuffle(pairs, shuffler);
+
+        for (int[] pair : pairs.subList(0, Math.min(size, pairs.size()))) {
+            out.write(String.format("Step %c must be finished before step %c can begin.\n", order.get(pair[0]), order.get(pair[1])));
+        }
+    }
+}
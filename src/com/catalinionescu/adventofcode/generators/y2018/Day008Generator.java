@@ -0,0 +1,87 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * A license tree, as a single line of numbers. Size is the number of nodes.
+ * <p>
+ * The tree hangs off a spine of nested nodes as deep as the size allows, up to 1000 levels so that the recursive solver keeps within a default thread stack;
+ * the other nodes get a random parent anywhere above that depth. Each node has 1 to 3 metadata entries between 1 and 9, which also makes part 2 reference
+ * children that don't exist, like the puzzle does.
+ */
+public class Day008Generator implements InputGenerator {
+    private static final int MAX_DEPTH = 1000;
+    private static final int MAX_METADATA = 3;
+    private static final int CHUNK = 8192;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 8 needs at least 1 node");
+        }
+
+        // Build the tree as parent links first, node 0 being the root
+        int depth[] = new int[size];
+        int childCount[] = new int[size];
+        int parent[] = new int[size];
+        int spine = Math.min(size - 1, MAX_DEPTH - 1);
+        parent[0] = -1;
+        for (int node = 1; node < size; node++) {
+            int p = node <= spine ? node - 1 : random.nextInt(node);
+            while (depth[p] >= MAX_DEPTH - 1) {
+                p = parent[p];
+            }
+            parent[node] = p;
+            depth[node] = depth[p] + 1;
+            childCount[p]++;
+        }
+        int metadataCount[] = new int[size];
+        for (int node = 0; node < size; node++) {
+            metadataCount[node] = random.nextInt(1, MAX_METADATA + 1);
+        }
+
+        // Children of each node, in node order
+        int firstChild[] = new int[size + 1];
+        for (int node = 0; node < size; node++) {
+            firstChild[node + 1] = firstChild[node] + childCount[node];
+        }
+        int children[] = new int[Math.max(size - 1, 0)];
+        int filled[] = new int[size];
+        for (int node = 1; node < size; node++) {
+            children[firstChild[parent[node]] + filled[parent[node]]++] = node;
+        }
+
+        // Write it depth first without recursion: header when entering a node, metadata when leaving it
+        StringBuilder sb = new StringBuilder();
+        int stack[] = new int[MAX_DEPTH];
+        int nextChild[] = new int[MAX_DEPTH];
+        int top = 0;
+        stack[0] = 0;
+        sb.append(childCount[0]).append(' ').append(metadataCount[0]);
+        while (top >= 0) {
+            int node = stack[top];
+            if (nextChild[top] < childCount[node]) {
+                int child = children[firstChild[node] + nextChild[top]++];
+                stack[++top] = child;
+                nextChild[top] = 0;
+                sb.append(' ').append(childCount[child]).append(' ').append(metadataCount[child]);
+            } else {
+                top--;
+                for (int i = 0; i < metadataCount[node]; i++) {
+                    sb.append(' ').append(random.nextInt(1, 10));
+                }
+            }
+
+            if (sb.length() > CHUNK) {
+                out.append(sb);
+                sb.setLength(0);
+            }
+        }
+        sb.append('\n');
+        out.append(sb);
+    }
+}
@@ -0,0 +1,24 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Marble game settings. Size is the value of the last marble; part 2 plays a hundred times as many, so the size is capped to keep that within an int.
+ */
+public class Day009Generator implements InputGenerator {
+    private static final int MAX_LAST_MARBLE = Integer.MAX_VALUE / 100;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 9 needs at least 1 marble");
+        }
+
+        int players = random.nextInt(9, 501);
+        out.write(String.format("%d players; last marble is worth %d points\n", players, Math.min(size, MAX_LAST_MARBLE)));
+    }
+}
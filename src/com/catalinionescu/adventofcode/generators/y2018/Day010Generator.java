@@ -0,0 +1,66 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Points of light that line up into a message. Size is the number of points, at least 2.
+ * <p>
+ * The message is 8 random glyphs of 6x10 pixels. Every point ends up on a lit pixel of the message at the same second and was sent there with a random
+ * velocity from far away. Two points sit on the top left pixel with opposite velocities, so the bounding box is strictly smaller at that second than one
+ * second before or after, which is what the solver looks for.
+ */
+public class Day010Generator implements InputGenerator {
+    private static final int GLYPHS = 8;
+    private static final int GLYPH_WIDTH = 6;
+    private static final int GLYPH_SPACING = 2;
+    private static final int HEIGHT = 10;
+    private static final int MAX_SPEED = 5;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 2) {
+            throw new IllegalArgumentException("Day 10 needs at least 2 points");
+        }
+
+        // Lit pixels of the message, as x, y pairs
+        int width = GLYPHS * (GLYPH_WIDTH + GLYPH_SPACING) - GLYPH_SPACING;
+        int lit[] = new int[width * HEIGHT * 2];
+        int litCount = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean isGlyph = x % (GLYPH_WIDTH + GLYPH_SPACING) < GLYPH_WIDTH;
+                if ((x == 0 && y == 0) || (isGlyph && random.nextBoolean())) {
+                    lit[litCount * 2] = x;
+                    lit[litCount * 2 + 1] = y;
+                    litCount++;
+                }
+            }
+        }
+
+        int seconds = random.nextInt(10000, 11000);
+        int originX = random.nextInt(-100, 100);
+        int originY = random.nextInt(-100, 100);
+        for (int i = 0; i < size; i++) {
+            int pixel, vx, vy;
+            if (i < 2) {
+                // The top left anchors
+                pixel = 0;
+                vx = i == 0 ? 1 : -1;
+                vy = vx;
+            } else {
+                // Light every pixel once before doubling up
+                pixel = i - 2 < litCount ? i - 2 : random.nextInt(litCount);
+                vx = random.nextInt(-MAX_SPEED, MAX_SPEED + 1);
+                vy = random.nextInt(-MAX_SPEED, MAX_SPEED + 1);
+            }
+
+            int x = originX + lit[pixel * 2] - vx * seconds;
+            int y = originY + lit[pixel * 2 + 1] - vy * seconds;
+            out.write(String.format("position=<%6d, %6d> velocity=<%2d, %2d>\n", x, y, vx, vy));
+        }
+    }
+}
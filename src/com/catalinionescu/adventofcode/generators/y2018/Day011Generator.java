@@ -0,0 +1,17 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * A grid serial number. The grid is always 300x300, so the size is ignored; only the seed matters.
+ */
+public class Day011Generator implements InputGenerator {
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        out.write(random.nextInt(1000, 10000) + "\n");
+    }
+}
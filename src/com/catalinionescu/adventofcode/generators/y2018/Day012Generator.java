@@ -0,0 +1,127 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * Initial pots and growth rules. Size is the number of pots in the initial state, which starts and ends with a plant. All 32 rules are listed.
+ * <p>
+ * Part 2 needs the plants to settle into a pattern that only shifts from one generation to the next, which random rules almost never do. So the rules start
+ * from a table that settles at once, every plant moving one or two pots left or right, and a few random outcomes are then flipped; a flip is only kept if
+ * the generations grown from the initial state still settle, with plants left, within {@link #SETTLE_GENERATIONS}. That takes simulating the generations a
+ * few times, about as much work as solving the input.
+ */
+public class Day012Generator implements InputGenerator {
+    private static final int RULE_LENGTH = 5;
+    private static final int SHIFTS[] = { -2, -1, 1, 2 };
+    private static final int RULE_FLIPS = 8;
+    // Well within the generations Day012 waits for the plants to settle
+    private static final int SETTLE_GENERATIONS = 500;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 12 needs at least 1 pot");
+        }
+
+        boolean pots[] = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            pots[i] = i == 0 || i == size - 1 || random.nextBoolean();
+        }
+
+        // Outcomes by rule, the rule read as a binary number with the leftmost pot as the highest bit
+        boolean outcomes[] = new boolean[1 << RULE_LENGTH];
+        int shift = SHIFTS[random.nextInt(SHIFTS.length)];
+        for (int mask = 0; mask < outcomes.length; mask++) {
+            // A plant ends up where the pot shift places to its left had one
+            outcomes[mask] = (mask & (1 << (RULE_LENGTH / 2 + shift))) != 0;
+        }
+        for (int i = 0; i < RULE_FLIPS; i++) {
+            // "....." always stays empty, or the plants would spread forever
+            int mask = 1 + random.nextInt(outcomes.length - 1);
+            outcomes[mask] = !outcomes[mask];
+            if (!settles(pots, outcomes)) {
+                outcomes[mask] = !outcomes[mask];
+            }
+        }
+
+        out.write("initial state: ");
+        for (boolean pot : pots) {
+            out.write(pot ? '#' : '.');
+        }
+        out.write("\n\n");
+
+        List<String> rules = new ArrayList<>();
+        char rule[] = new char[RULE_LENGTH];
+        for (int mask = 0; mask < outcomes.length; mask++) {
+            for (int i = 0; i < RULE_LENGTH; i++) {
+                rule[i] = (mask & (1 << (RULE_LENGTH - 1 - i))) != 0 ? '#' : '.';
+            }
+            rules.add(new String(rule) + " => " + (outcomes[mask] ? '#' : '.'));
+        }
+        Collections.shuffle(rules, new Random(random.nextLong()));
+
+        for (String line : rules) {
+            out.write(line);
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Tells whether the plants settle into a shifting pattern, the way Day012 looks for it: a generation equal to the previous one once both are trimmed.
+     *
+     * @param initial Initial pots
+     * @param outcomes Outcome of every rule
+     * @return True if they settle within {@link #SETTLE_GENERATIONS}, with plants left
+     */
+    private static boolean settles(boolean initial[], boolean outcomes[]) {
+        boolean pots[] = trim(initial);
+        for (int generation = 0; generation < SETTLE_GENERATIONS && pots.length > 0; generation++) {
+            boolean next[] = trim(grow(pots, outcomes));
+            if (Arrays.equals(next, pots)) {
+                return true;
+            }
+            pots = next;
+        }
+        return false;
+    }
+
+    /**
+     * Computes the next generation. Plants can appear up to 2 pots beyond either end, so the result is 4 pots longer.
+     *
+     * @param pots Current generation
+     * @param outcomes Outcome of every rule
+     * @return Next generation, starting 2 pots to the left of the current one
+     */
+    private static boolean[] grow(boolean pots[], boolean outcomes[]) {
+        boolean next[] = new boolean[pots.length + 4];
+        for (int i = 0; i < next.length; i++) {
+            int mask = 0;
+            // Pot i of the next generation is pot i - 2 of the current one, ruled by pots i - 4 to i
+            for (int j = i - 4; j <= i; j++) {
+                mask = (mask << 1) | (j >= 0 && j < pots.length && pots[j] ? 1 : 0);
+            }
+            next[i] = outcomes[mask];
+        }
+        return next;
+    }
+
+    private static boolean[] trim(boolean pots[]) {
+        int first = 0, last = pots.length - 1;
+        while (first <= last && !pots[first]) {
+            first++;
+        }
+        while (last >= first && !pots[last]) {
+            last--;
+        }
+        return Arrays.copyOfRange(pots, first, last + 1);
+    }
+}
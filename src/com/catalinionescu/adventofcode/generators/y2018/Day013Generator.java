@@ -0,0 +1,118 @@
+package com.catalinionescu.adventofcode.generators.y2018;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import com.catalinionescu.adventofcode.generators.InputGenerator;
+
+/**
+ * A track layout. Size is the number of loops, laid out in a square of 12x12 tiles, one rectangular loop of random size per tile.
+ * <p>
+ * One loop, picked at random, carries a single cart. Every other loop carries two carts going opposite ways, which are bound to crash into each other within
+ * half a lap. So part 1 always sees a crash and part 2 always ends with the lone cart. Loops don't cross, so there are no junctions.
+ */
+public class Day013Generator implements InputGenerator {
+    private static final int TILE = 12;
+    // Loops leave the last row and column of their tile empty, so neighbors never touch
+    private static final int MAX_SIDE = TILE - 1;
+    private static final int MIN_SIDE = 3;
+
+    @Override
+    public void generate(int size, SplittableRandom random, Writer out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Day 13 needs at least 1 loop");
+        }
+
+        int columns = (int) Math.ceil(Math.sqrt(size));
+        int rows = (size + columns - 1) / columns;
+        int lone = random.nextInt(size);
+
+        char lines[][] = new char[TILE][columns * TILE];
+        int loop = 0;
+        for (int row = 0; row < rows; row++) {
+            for (char line[] : lines) {
+                Arrays.fill(line, ' ');
+            }
+
+            for (int column = 0; column < columns && loop < size; column++, loop++) {
+                int width = random.nextInt(MIN_SIDE, MAX_SIDE + 1);
+                int height = random.nextInt(MIN_SIDE, MAX_SIDE + 1);
+                int left = column * TILE + random.nextInt(MAX_SIDE - width + 1);
+                int top = random.nextInt(MAX_SIDE - height + 1);
+                drawLoop(lines, left, top, width, height);
+
+                // Clockwise cart
+                placeCart(lines, left, top, width, height, true, random);
+                if (loop != lone) {
+                    placeCart(lines, left, top, width, height, false, random);
+                }
+            }
+
+            for (char line[] : lines) {
+                // Trailing blanks are only noise
+                int length = line.length;
+                while (length > 0 && line[length - 1] == ' ') {
+                    length--;
+                }
+                out.write(line, 0, length);
+                out.write('\n');
+            }
+        }
+    }
+
+    private static void drawLoop(char lines[][], int left, int top, int width, int height) {
+        int right = left + width - 1;
+        int bottom = top + height - 1;
+        for (int x = left + 1; x < right; x++) {
+            lines[top][x] = '-';
+            lines[bottom][x] = '-';
+        }
+        for (int y = top + 1; y < bottom; y++) {
+            lines[y][left] = '|';
+            lines[y][right] = '|';
+        }
+        lines[top][left] = '/';
+        lines[top][right] = '\\';
+        lines[bottom][left] = '\\';
+        lines[bottom][right] = '/';
+    }
+
+    /**
+     * Puts a cart on a straight part of a loop that doesn't have a cart yet.
+     */
+    private static void placeCart(char lines[][], int left, int top, int width, int height, boolean clockwise, SplittableRandom random) {
+        int right = left + width - 1;
+        int bottom = top + height - 1;
+        int x, y;
+        char cart;
+        do {
+            // Clockwise, on screen, is right along the top edge, down the right edge, left along the bottom and up the left edge
+            switch (random.nextInt(4)) {
+                case 0:
+                    x = random.nextInt(left + 1, right);
+                    y = top;
+                    cart = clockwise ? '>' : '<';
+                    break;
+                case 1:
+                    x = right;
+                    y = random.nextInt(top + 1, bottom);
+                    cart = clockwise ? 'v' : '^';
+                    break;
+                case 2:
+                    x = random.nextInt(left + 1, right);
+                    y = bottom;
+                    cart = clockwise ? '<' : '>';
+                    break;
+                default:
+                    x = left;
+                    y = random.nextInt(top + 1, bottom);
+                    cart = clockwise ? '^' : 'v';
+                    break;
+            }
+        } while (lines[y][x] != '-' && lines[y][x] != '|');
+
+        lines[y][x] = cart;
+    }
+}
@@ -1,62 +1,318 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.LineSource;
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.common.StreamingSolver;
+import com.catalinionescu.adventofcode.datastructures.AdaptiveLongSet;
+import com.catalinionescu.adventofcode.datastructures.IntArrays;
 
-public class Day001 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/1/input";
-    public static String INPUT_FILE = "inputs/input001.txt";
+public class Day001 implements StreamingSolver {
+    // Inputs are cut in chunks of at least this many bytes, smaller ones are read on the calling thread
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    // A chunk has to fit in one mapping
+    private static final long MAX_CHUNK_BYTES = 1 << 30;
+    // Chunks per pool thread, so that threads finishing early can pick up more
+    private static final int CHUNKS_PER_THREAD = 4;
+    // Largest number of prefix sums an array can hold
+    private static final int MAX_SUMS = Integer.MAX_VALUE - 8;
 
-    private void main() throws IOException {
-        Collection<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    // Frequency before each change, i.e. the prefix sums of the changes shifted by one, starting with 0. Null if there are too many changes to keep.
+    private long start[];
+    private long changeCount;
+    // Frequency after all the changes
+    private long drift;
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
+    /**
+     * Finds where the first line starting at or after a position begins.
+     *
+     * @param channel Input file
+     * @param position Position
+     * @param size Size of the input
+     * @return Start of the line, or size if no line starts after the position
+     * @throws IOException If the input can't be read
+     */
+    private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(256);
+        // The line starts after the first line break from the previous byte on
+        for (long pos = position - 1; pos < size; pos += block.limit()) {
+            block.clear();
+            if (channel.read(block, pos) <= 0) {
+                break;
+            }
+            block.flip();
+            for (int i = 0; i < block.limit(); i++) {
+                if (block.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Parses the input in chunks on the fork-join pool, as a parallel prefix sum, when it's big enough and there are threads to share it. A first sweep
+     * sums and counts the changes of every chunk, which gives part 1 and where every chunk starts, in changes and in frequency. If the prefix sums fit in
+     * an array, a second sweep has every chunk write its own share of them from its starting frequency on. The second sweep reads the mapped chunks again
+     * rather than holding on to the parsed changes, so the prefix sums are the only memory that grows with the input.
+     *
+     * @param inputFile Input file
+     * @throws IOException If the input can't be read
+     */
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput chunks[];
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                throw new IllegalArgumentException("Input data set is empty!");
+            }
+
+            // Chunk boundaries are moved to the next line start, so no line is split
+            int threads = ForkJoinPool.getCommonPoolParallelism();
+            long wanted = threads > 1 ? Math.min(size / MIN_CHUNK_BYTES, (long) threads * CHUNKS_PER_THREAD) : 1;
+            int count = (int) Math.max(1, Math.max((size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES, wanted));
+            chunks = new MappedInput[count];
+            long from = 0;
+            for (int i = 0; i < count; i++) {
+                long to = i == count - 1 ? size : lineStart(channel, Math.max(from, size * (i + 1) / count), size);
+                chunks[i] = MappedInput.map(channel, from, to - from);
+                from = to;
+            }
+        }
+
+        if (chunks.length == 1) {
+            parseSequential(chunks[0]);
+            return;
+        }
+
+        long chunkCounts[] = new long[chunks.length];
+        long chunkSums[] = new long[chunks.length];
+        forEachChunk(chunks.length, i -> {
+            AsciiTokenizer tokenizer = new AsciiTokenizer(chunks[i].buffer());
+            long count = 0, sum = 0;
+            while (tokenizer.hasNextInt()) {
+                sum += tokenizer.nextInt();
+                count++;
+            }
+            chunkCounts[i] = count;
+            chunkSums[i] = sum;
+        });
+
+        // Exclusive scan over the chunks: where each chunk starts
+        long chunkFirst[] = new long[chunks.length];
+        long chunkStart[] = new long[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            chunkFirst[i] = changeCount;
+            chunkStart[i] = drift;
+            changeCount += chunkCounts[i];
+            drift += chunkSums[i];
+        }
+        if (changeCount == 0) {
+            throw new IllegalArgumentException("Input data set is empty!");
+        }
+        if (changeCount > MAX_SUMS) {
+            Log.logWarningMessage("%d frequency changes are too many to keep for part 2", changeCount);
             return;
         }
 
-        int frequency = 0;
-        Integer value;
+        long sums[] = new long[(int) changeCount];
+        forEachChunk(chunks.length, i -> {
+            AsciiTokenizer tokenizer = new AsciiTokenizer(chunks[i].buffer());
+            int idx = (int) chunkFirst[i];
+            long frequency = chunkStart[i];
+            while (tokenizer.hasNextInt()) {
+                sums[idx++] = frequency;
+                frequency += tokenizer.nextInt();
+            }
+        });
+        start = sums;
+    }
+
+    /**
+     * Parses an input small enough for one thread, or on a single processor, in a single sweep.
+     *
+     * @param input Whole input
+     */
+    private void parseSequential(MappedInput input) {
+        long sums[] = new long[1024];
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input.buffer());
+        while (tokenizer.hasNextInt()) {
+            if (sums != null && changeCount == sums.length) {
+                if (changeCount == MAX_SUMS) {
+                    // Part 1 can still be answered
+                    Log.logWarningMessage("More than %d frequency changes are too many to keep for part 2", changeCount);
+                    sums = null;
+                } else {
+                    sums = Arrays.copyOf(sums, (int) Math.min(MAX_SUMS, changeCount * 2));
+                }
+            }
+            if (sums != null) {
+                sums[(int) changeCount] = drift;
+            }
+            changeCount++;
+            drift += tokenizer.nextInt();
+        }
+
+        if (changeCount == 0) {
+            throw new IllegalArgumentException("Input data set is empty!");
+        }
+        start = sums;
+    }
 
-        // Part 1
-        for (String line : input) {
-            value = Integer.parseInt(line);
-            frequency += value.intValue();
+    /**
+     * Runs a job for every chunk, in parallel on the fork-join pool when there are several.
+     *
+     * @param count Number of chunks
+     * @param job Job, given the chunk index
+     */
+    private static void forEachChunk(int count, IntConsumer job) {
+        if (count == 1) {
+            job.accept(0);
+        } else {
+            IntStream.range(0, count).parallel().forEach(job);
         }
+    }
 
-        Log.logInfoMessage("Final frequency is: %d", frequency);
+    @Override
+    public Object part1() {
+        return drift;
+    }
 
-        // Part 2
-        frequency = 0;
+    @Override
+    public Object streamPart1(LineSource lines) throws IOException {
+        AsciiTokenizer tokenizer = new AsciiTokenizer(lines.buffer());
+        long frequency = 0;
+        boolean empty = true;
+
+        while (lines.next()) {
+            tokenizer.reset(lines);
+            while (tokenizer.hasNextInt()) {
+                frequency += tokenizer.nextInt();
+                empty = false;
+            }
+        }
 
-        Set<Integer> seenFrequencies = new HashSet<>();
-        boolean foundDuplicate = false;
+        if (empty) {
+            throw new IllegalArgumentException("Input data set is empty!");
+        }
 
-        // Add first frequency (!)
-        seenFrequencies.add(0);
+        return frequency;
+    }
 
-        while (!foundDuplicate) {
-            for (String line : input) {
-                value = Integer.parseInt(line);
-                frequency += value.intValue();
+    /**
+     * Finds the first frequency reached twice when the changes are applied over and over, without replaying them.
+     * <p>
+     * With start[j] the frequency before change j in the first pass and drift the sum of all the changes, the frequency reached at step pass * count + j is
+     * pass * drift + start[j]. A frequency repeats within the first pass if two starts are equal, which a set finds; otherwise see
+     * {@link #laterPassRepeat(long[], int, long)}.
+     *
+     * @param start Frequency before each change
+     * @param count Number of changes
+     * @param drift Sum of all the changes
+     * @return First frequency reached twice, or null if none ever is
+     */
+    static Long firstRepeat(long start[], int count, long drift) {
+        // Most inputs repeat within the first pass, which a set finds in linear time and often early
+        AdaptiveLongSet seen = new AdaptiveLongSet();
+        for (int i = 0; i < count; i++) {
+            if (!seen.add(start[i])) {
+                return start[i];
+            }
+        }
+        return laterPassRepeat(start, count, drift);
+    }
 
-                if (seenFrequencies.contains(frequency)) {
-                    Log.logInfoMessage("First duplicate frequency: %d", frequency);
-                    foundDuplicate = true;
-                    break;
-                }
-                seenFrequencies.add(frequency);
+    /**
+     * Finds the first frequency reached twice when the changes are applied over and over, knowing that no frequency repeats within the first pass.
+     * <p>
+     * Two frequencies can then only meet if their starts are congruent modulo the drift: for a positive drift the lower start a reaches the higher one b
+     * after (b - a) / drift passes, at step passes * count + index of a. Sorting the starts by residue and quotient makes the nearest such pair of every
+     * start adjacent, and the first repeat is the pair that needs the fewest passes, ties going to the lowest index. A negative drift is the mirror image,
+     * and with no drift the start frequency comes back after a single pass. O(n log n) however many passes it takes.
+     *
+     * @param start Frequency before each change, all different
+     * @param count Number of changes
+     * @param drift Sum of all the changes
+     * @return First frequency reached twice, or null if none ever is
+     */
+    static Long laterPassRepeat(long start[], int count, long drift) {
+        if (count == 0) {
+            return null;
+        }
+        if (drift == 0) {
+            return start[0];
+        }
+
+        // Mirror a negative drift, so sequences only go up
+        long sign = drift < 0 ? -1 : 1;
+        long step = Math.abs(drift);
+        long residue[] = new long[count];
+        long quotient[] = new long[count];
+        int order[] = new int[count];
+        for (int i = 0; i < count; i++) {
+            long value = start[i] * sign;
+            residue[i] = Math.floorMod(value, step);
+            quotient[i] = Math.floorDiv(value, step);
+            order[i] = i;
+        }
+        IntArrays.sort(order, 0, count, (a, b) -> {
+            int result = Long.compare(residue[a], residue[b]);
+            return result != 0 ? result : Long.compare(quotient[a], quotient[b]);
+        });
+
+        long bestPasses = Long.MAX_VALUE;
+        int bestIndex = -1;
+        int bestTarget = -1;
+        for (int i = 1; i < count; i++) {
+            int a = order[i - 1], b = order[i];
+            if (residue[a] != residue[b]) {
+                continue;
             }
+
+            long passes = quotient[b] - quotient[a];
+            if (passes < bestPasses || (passes == bestPasses && a < bestIndex)) {
+                bestPasses = passes;
+                bestIndex = a;
+                bestTarget = b;
+            }
+        }
+
+        return bestTarget < 0 ? null : start[bestTarget];
+    }
+
+    @Override
+    public Object part2() {
+        if (start == null) {
+            return null;
         }
+
+        Long frequency = firstRepeat(start, (int) changeCount, drift);
+
+        if (frequency == null) {
+            Log.logInfoMessage("No frequency is ever reached twice");
+        }
+
+        return frequency;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day001().main();
+        SolverRunner.runAndLog(1, new Day001());
     }
 }
@@ -2,107 +2,208 @@ package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.List;
 
+import com.catalinionescu.adventofcode.common.LineSource;
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.common.StreamingSolver;
+import com.catalinionescu.adventofcode.datastructures.LongIntMultimap;
 
-public class Day002 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/2/input";
-    public static String INPUT_FILE = "inputs/input002.txt";
+public class Day002 implements StreamingSolver {
+    // Repetition kinds, as bits
+    private static final int TWO = 1;
+    private static final int THREE = 2;
+    // Odd, so its powers never wrap around to 0
+    private static final long HASH_BASE = 131;
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private List<String> input;
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        input = Files.readAllLines(inputFile);
 
         if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+            throw new IllegalArgumentException("Input data set is empty!");
         }
+    }
 
-        // ********* Part 1
+    /**
+     * Tells which repetitions a box ID has, from its letter frequencies, and resets the frequencies for the next box ID. Only the first repetition of a
+     * kind counts, so if e.g. a box ID has 2 'a' and 2 'b' it only counts once towards twos.
+     *
+     * @param freq Letter frequencies of the box ID
+     * @return {@link #TWO} and/or {@link #THREE}, or 0
+     */
+    private static int repeats(int freq[]) {
+        int kinds = 0;
+        for (int i = 0; i < freq.length; i++) {
+            if (freq[i] == 2) {
+                kinds |= TWO;
+            } else if (freq[i] == 3) {
+                kinds |= THREE;
+            }
+
+            freq[i] = 0;
+        }
+        return kinds;
+    }
 
+    @Override
+    public Object part1() {
         int twos = 0, threes = 0;
-        // Only the first repetition of a kind counts, so if e.g. a box ID has 2 'a' and 2 'b' it only counts once towards twos.
-        boolean oneTwo = false, oneThree = false;
 
         // Taking advantage of the fact that box IDs contain only lowercase letters, we can use a frequency vector
         int[] freq = new int[26];
 
         for (String line : input) {
-            oneTwo = false;
-            oneThree = false;
-
             for (char ch : line.toCharArray()) {
                 freq[ch - 'a']++;
             }
 
-            for (int i = 0; i < freq.length; i++) {
-                if (freq[i] == 2 && !oneTwo) {
-                    twos++;
-                    oneTwo = true;
-                } else if (freq[i] == 3 && !oneThree) {
-                    threes++;
-                    oneThree = true;
-                }
+            int kinds = repeats(freq);
+            if ((kinds & TWO) != 0) {
+                twos++;
+            }
+            if ((kinds & THREE) != 0) {
+                threes++;
+            }
+        }
+
+        Log.logDebugMessage("Twos: %d, Threes: %d", twos, threes);
+
+        return twos * threes;
+    }
+
+    @Override
+    public Object streamPart1(LineSource lines) throws IOException {
+        int twos = 0, threes = 0;
+        int[] freq = new int[26];
+        boolean empty = true;
 
-                // Reset for next box ID
-                freq[i] = 0;
+        while (lines.next()) {
+            empty = false;
+            for (int i = 0; i < lines.length(); i++) {
+                freq[lines.charAt(i) - 'a']++;
+            }
+
+            int kinds = repeats(freq);
+            if ((kinds & TWO) != 0) {
+                twos++;
+            }
+            if ((kinds & THREE) != 0) {
+                threes++;
             }
         }
 
-        Log.logInfoMessage("Twos: %d, Threes: %d, Checksum: %d", twos, threes, twos * threes);
+        if (empty) {
+            throw new IllegalArgumentException("Input data set is empty!");
+        }
+        Log.logDebugMessage("Twos: %d, Threes: %d", twos, threes);
 
-        // ********* Part 2
-        char[] id1, id2;
-        int mismatches = 0, firstMistmatchPos = 0;
-        boolean found = false;
+        return twos * threes;
+    }
 
-        for (int i = 0; i < input.size() - 1; i++) {
-            // Much faster to compare two arrays than repeatedly call String.charAt()
-            id1 = input.get(i).toCharArray();
+    /**
+     * Hashes every box ID as the sum of its letters times powers of {@link #HASH_BASE}, plus its length. Subtracting a letter's term gives the hash of the
+     * ID with that position masked out in O(1), and two IDs differing only at that position get the same masked hash.
+     *
+     * @param power Powers of the base, one more than the longest ID
+     * @return Hash of every box ID
+     */
+    private long[] hashes(long power[]) {
+        long hash[] = new long[input.size()];
+        for (int i = 0; i < hash.length; i++) {
+            String id = input.get(i);
+            long h = id.length();
+            for (int pos = 0; pos < id.length(); pos++) {
+                h += id.charAt(pos) * power[pos + 1];
+            }
+            hash[i] = h;
+        }
+        return hash;
+    }
 
-            for (int j = i + 1; j < input.size(); j++) {
-                // Count the number of letters not matching between the two strings
-                mismatches = 0;
-                id2 = input.get(j).toCharArray();
-                if (id1.length != id2.length) {
-                    continue;
-                }
+    /**
+     * Returns true if two box IDs differ only at the given position.
+     *
+     * @param id1 First box ID
+     * @param id2 Second box ID
+     * @param pos Position
+     * @return
+     */
+    private static boolean differOnlyAt(String id1, String id2, int pos) {
+        return id1.length() == id2.length() && id1.charAt(pos) != id2.charAt(pos) && id1.regionMatches(0, id2, 0, pos)
+                && id1.regionMatches(pos + 1, id2, pos + 1, id1.length() - pos - 1);
+    }
 
-                for (int ci = 0; ci < id1.length; ci++) {
-                    if (id1[ci] != id2[ci]) {
-                        mismatches++;
-                        firstMistmatchPos = ci;
-                    }
-                }
+    /**
+     * Finds the two box IDs differing by exactly one letter with a deletion index: for every position, every box ID is hashed with that position masked
+     * out, and two IDs landing on the same masked hash are checked letter by letter, which rules out hash collisions and duplicate IDs. O(n * L) for n IDs
+     * of length L, instead of comparing every pair. Should several pairs qualify, the first one in input order wins, as if comparing pairs in order.
+     */
+    @Override
+    public Object part2() {
+        int maxLength = 0;
+        for (String id : input) {
+            maxLength = Math.max(maxLength, id.length());
+        }
+        long power[] = new long[maxLength + 1];
+        power[0] = 1;
+        for (int i = 1; i < power.length; i++) {
+            power[i] = power[i - 1] * HASH_BASE;
+        }
+        long hash[] = hashes(power);
+
+        // Masked hash -> box IDs with it, in input order, leaving out IDs identical to one already there
+        LongIntMultimap index = new LongIntMultimap(input.size());
 
-                if (mismatches > 1) {
+        int first = -1, second = -1, mismatchPos = -1;
+        for (int pos = 0; pos < maxLength; pos++) {
+            index.clear();
+            for (int j = 0; j < hash.length; j++) {
+                String id = input.get(j);
+                if (id.length() <= pos) {
                     continue;
                 }
 
-                // Remove the mismatched char to get our answer
-                String s1 = input.get(i);
-                String answer = "";
-                if (firstMistmatchPos > 0) {
-                    answer = s1.substring(0, firstMistmatchPos);
+                // The IDs with the same masked hash come in input order, so the first one differing only here is the earliest match of this ID. Others
+                // are hash collisions, or duplicates of this ID, which make it redundant: any later match would pair up with the earlier copy first.
+                long key = hash[j] - id.charAt(pos) * power[pos + 1];
+                boolean redundant = false;
+                for (int entry = index.first(key); entry >= 0 && !redundant; entry = index.next(key, entry)) {
+                    int i = index.valueAt(entry);
+                    String other = input.get(i);
+                    if (differOnlyAt(other, id, pos)) {
+                        if (first < 0 || i < first || (i == first && j < second)) {
+                            first = i;
+                            second = j;
+                            mismatchPos = pos;
+                        }
+                        redundant = true;
+                    } else if (other.equals(id)) {
+                        redundant = true;
+                    }
                 }
-                if (firstMistmatchPos < s1.length() - 2) {
-                    answer += s1.substring(firstMistmatchPos + 1, s1.length());
+                if (!redundant) {
+                    index.put(key, j);
                 }
-                Log.logInfoMessage("First ID: %s\nSecond ID: %s\nCommon Letters: %s", s1, input.get(j), answer);
-
-                // No point in searching further after an answer has been found
-                found = true;
-                break;
             }
+        }
 
-            if (found) {
-                break;
-            }
+        if (first < 0) {
+            return null;
         }
+
+        Log.logDebugMessage("First ID: %s\nSecond ID: %s", input.get(first), input.get(second));
+
+        // Remove the mismatched char to get our answer
+        String id = input.get(first);
+        return id.substring(0, mismatchPos) + id.substring(mismatchPos + 1);
     }
 
     public static void main(String[] args) throws IOException {
-        new Day002().main();
+        SolverRunner.runAndLog(2, new Day002());
     }
 }
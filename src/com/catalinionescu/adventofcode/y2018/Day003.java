@@ -1,32 +1,31 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 
-import com.catalinionescu.adventofcode.common.Log;
-
-public class Day003 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/3/input";
-    public static String INPUT_FILE = "inputs/input003.txt";
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.LineCursor;
+import com.catalinionescu.adventofcode.common.LineSource;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.common.StreamingSolver;
+import com.catalinionescu.adventofcode.datastructures.IntGrid;
 
+public class Day003 implements StreamingSolver {
     class Claim {
         private int x, y;
         private int width, height;
-        private String id;
+        private int id;
 
-        public Claim(String rawClaim) {
+        public Claim(AsciiTokenizer rawClaim) {
             // #1 @ 551,185: 21x10
-            String[] parts = rawClaim.split(" ");
-            String[] startS = parts[2].substring(0, parts[2].length() - 1).split(",");
-            String[] sizeS = parts[3].split("x");
-            x = Integer.parseInt(startS[0]);
-            y = Integer.parseInt(startS[1]);
-            width = Integer.parseInt(sizeS[0]);
-            height = Integer.parseInt(sizeS[1]);
-            id = parts[0];
+            id = rawClaim.nextUnsignedInt();
+            x = rawClaim.nextUnsignedInt();
+            y = rawClaim.nextUnsignedInt();
+            width = rawClaim.nextUnsignedInt();
+            height = rawClaim.nextUnsignedInt();
         }
 
         public int getX() {
@@ -46,62 +45,106 @@ public class Day003 {
         }
 
         public String getId() {
-            return id;
+            return "#" + id;
         }
 
         @Override
         public String toString() {
-            return String.format("%s @ %d,%d: %dx%d", id, x, y, width, height);
+            return String.format("#%d @ %d,%d: %dx%d", id, x, y, width, height);
         }
     }
 
     // Once again, because size allows us to we'll use a frequency matrix. We'll increment each inch of the fabric by 1 every time a claim contains it.
     private static int FABRIC_SIZE = 1000;
-    int[][] fabric = new int[FABRIC_SIZE][FABRIC_SIZE];
+    IntGrid fabric = new IntGrid(FABRIC_SIZE, FABRIC_SIZE);
 
-    private void main() throws IOException {
-        Collection<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private Collection<Claim> claims = new ArrayList<>();
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
-        }
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
 
-        Collection<Claim> claims = new ArrayList<>();
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
+        }
 
-        // ********* Part 1
-        for (String line : input) {
-            Claim claim = new Claim(line);
+        // Both parts need the claims laid out on the fabric, so we do it while parsing
+        LineCursor line = input.lines();
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input.buffer());
+        while (line.next()) {
+            tokenizer.reset(line);
+            Claim claim = new Claim(tokenizer);
             claims.add(claim);
+            lay(fabric, claim.getX(), claim.getY(), claim.getWidth(), claim.getHeight());
+        }
+    }
 
-            for (int i = claim.getX(); i < claim.getX() + claim.getWidth(); i++) {
-                for (int j = claim.getY(); j < claim.getY() + claim.getHeight(); j++) {
-                    fabric[i][j]++;
-                }
+    /**
+     * Lays a claim on the fabric.
+     *
+     * @param fabric Fabric
+     * @param x X coordinate of the claim
+     * @param y Y coordinate of the claim
+     * @param width Width of the claim
+     * @param height Height of the claim
+     */
+    private static void lay(IntGrid fabric, int x, int y, int width, int height) {
+        // Row by row, so each row of the claim is a run of consecutive cells
+        for (int j = y; j < y + height; j++) {
+            for (int idx = fabric.index(x, j), last = idx + width; idx < last; idx++) {
+                fabric.add(idx, 1);
             }
         }
+    }
 
+    private static int overlapping(IntGrid fabric) {
         // All the parts of the fabric where 2 or more claims overlap will have a frequency of 2 or more.
         int sum = 0;
-        for (int i = 0; i < FABRIC_SIZE; i++) {
-            for (int j = 0; j < FABRIC_SIZE; j++) {
-                if (fabric[i][j] > 1) {
-                    sum++;
-                }
+        for (int inches : fabric.cells()) {
+            if (inches > 1) {
+                sum++;
             }
         }
 
-        Log.logInfoMessage("Sq. Inches: %d", sum);
+        return sum;
+    }
 
-        // ********* Part 2
+    @Override
+    public Object part1() {
+        return overlapping(fabric);
+    }
+
+    @Override
+    public Object streamPart1(LineSource lines) throws IOException {
+        // Claims are laid as they're read and then dropped, only the fabric is kept
+        IntGrid streamed = new IntGrid(FABRIC_SIZE, FABRIC_SIZE);
+        AsciiTokenizer tokenizer = new AsciiTokenizer(lines.buffer());
+        boolean empty = true;
+        while (lines.next()) {
+            tokenizer.reset(lines);
+            // #1 @ 551,185: 21x10
+            tokenizer.nextUnsignedInt();
+            lay(streamed, tokenizer.nextUnsignedInt(), tokenizer.nextUnsignedInt(), tokenizer.nextUnsignedInt(), tokenizer.nextUnsignedInt());
+            empty = false;
+        }
+
+        if (empty) {
+            throw new IllegalArgumentException("Input data set is empty!");
+        }
+
+        return overlapping(streamed);
+    }
+
+    @Override
+    public Object part2() {
         boolean found = false;
         for (Claim claim : claims) {
             found = true;
 
-            for (int i = claim.getX(); i < claim.getX() + claim.getWidth(); i++) {
-                for (int j = claim.getY(); j < claim.getY() + claim.getHeight(); j++) {
+            for (int j = claim.getY(); j < claim.getY() + claim.getHeight(); j++) {
+                for (int idx = fabric.index(claim.getX(), j), last = idx + claim.getWidth(); idx < last; idx++) {
                     // If any square inch of this claim's fabric has a frequency of 2 or more it means it's overlapping with another claim
-                    if (fabric[i][j] != 1) {
+                    if (fabric.get(idx) != 1) {
                         found = false;
                         break;
                     }
@@ -113,13 +156,14 @@ public class Day003 {
             }
 
             if (found) {
-                Log.logInfoMessage("ID of the claim that doesn't overlap: %s", claim.getId());
-                break;
+                return claim.getId();
             }
         }
+
+        return null;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day003().main();
+        SolverRunner.runAndLog(3, new Day003());
     }
 }
@@ -1,20 +1,19 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.Path;
 import java.util.Set;
 import java.util.TreeSet;
 
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.LineCursor;
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.datastructures.IntObjectMap;
 
-public class Day004 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/4/input";
-    public static String INPUT_FILE = "inputs/input004.txt";
-
+public class Day004 implements Solver {
     enum EventType {
         FALL_ASLEEP,
         WAKE_UP,
@@ -34,34 +33,29 @@ public class Day004 {
         // relevant only if eventType == BEGIN_SHIFT
         private int guardId;
 
-        public Event(final String rawEvent) {
-            String[] split = rawEvent.split(" ");
-            // The 3 possible event types:
+        public Event(final AsciiTokenizer rawEvent) {
+            // The 3 possible event types, with a fixed layout up to the event description:
             // [1518-08-02 23:59] Guard #1657 begins shift
             // [1518-03-26 00:25] falls asleep
             // [1518-09-03 00:27] wakes up
-            if (split[2].equals("Guard")) {
+            char what = rawEvent.charAt(19);
+            if (what == 'G') {
                 eventType = EventType.BEGIN_SHIFT;
-            } else if (split[2].equals("falls")) {
+            } else if (what == 'f') {
                 eventType = EventType.FALL_ASLEEP;
             } else {
                 eventType = EventType.WAKE_UP;
             }
 
             if (eventType == EventType.BEGIN_SHIFT) {
-                guardId = Integer.parseInt(split[3].substring(1, split[3].length()));
+                rawEvent.position(26);
+                guardId = rawEvent.nextUnsignedInt();
             }
 
-            String rawDate = split[0].substring(1, split[0].length());
-            String[] dateParts = rawDate.split("-");
-            day = Integer.parseInt(dateParts[2]);
-            month = Integer.parseInt(dateParts[1]);
-
-            String rawTime = split[1].substring(0, split[1].length() - 1);
-            String[] timeParts = rawTime.split(":");
-            min = Integer.parseInt(timeParts[1]);
-
-            hour = Integer.parseInt(timeParts[0]);
+            month = rawEvent.fixedInt(6, 2);
+            day = rawEvent.fixedInt(9, 2);
+            hour = rawEvent.fixedInt(12, 2);
+            min = rawEvent.fixedInt(15, 2);
             // if (hour == 23) {
             // min = 0;
             // }
@@ -193,27 +187,33 @@ public class Day004 {
         }
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    // <guard Id, guard> for fast lookup
+    private IntObjectMap<Guard> guards = new IntObjectMap<>();
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
         Set<Event> events = new TreeSet<>();
-        for (String line : input) {
-            events.add(new Event(line));
+        LineCursor line = input.lines();
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input.buffer());
+        while (line.next()) {
+            tokenizer.reset(line);
+            events.add(new Event(tokenizer));
         }
 
         Log.logInfoMessage("Parsed and sorted %d events.", events.size());
 
-        // for (Event event : events) {
-        // Log.logInfoMessage(event.toString());
-        // }
+        if (Log.isDebugEnabled()) {
+            for (Event event : events) {
+                Log.logDebugMessage(event.toString());
+            }
+        }
 
-        // <guard Id, guard> for fast lookup
-        Map<Integer, Guard> guards = new HashMap<>();
         Guard currentGuard = null;
         boolean isAsleep = false;
         int sleepStart = 0, sleepEnd = 0;
@@ -221,8 +221,11 @@ public class Day004 {
         for (Event event : events) {
             switch (event.getType()) {
                 case BEGIN_SHIFT:
-                    guards.putIfAbsent(event.getGuardId(), new Guard(event.getGuardId()));
                     currentGuard = guards.get(event.getGuardId());
+                    if (currentGuard == null) {
+                        currentGuard = new Guard(event.getGuardId());
+                        guards.put(event.getGuardId(), currentGuard);
+                    }
                     isAsleep = false;
                     break;
 
@@ -256,32 +259,39 @@ public class Day004 {
         }
 
         if (guards.isEmpty()) {
-            Log.logErrorMessage("No guards found on duty :(");
-            return;
+            throw new IllegalArgumentException("No guards found on duty :(");
         }
+    }
 
-        // ********* Part 1
+    @Override
+    public Object part1() {
         Guard sleepy = guards.values().iterator().next();
         for (Guard guard : guards.values()) {
             if (guard.getMinutesAsleep() > sleepy.getMinutesAsleep()) {
                 sleepy = guard;
             }
         }
-        Log.logInfoMessage("Part 1 - Guard %d slept %d minutes total, with minute %d asleep most. Response: %d", sleepy.getId(), sleepy.getMinutesAsleep(), sleepy.getMinuteAsleepMost(), sleepy.getId() *
+        Log.logDebugMessage("Part 1 - Guard %d slept %d minutes total, with minute %d asleep most. Response: %d", sleepy.getId(), sleepy.getMinutesAsleep(), sleepy.getMinuteAsleepMost(), sleepy.getId() *
                 sleepy.getMinuteAsleepMost());
 
-        // ********* Part 2
-        sleepy = guards.values().iterator().next();
+        return sleepy.getId() * sleepy.getMinuteAsleepMost();
+    }
+
+    @Override
+    public Object part2() {
+        Guard sleepy = guards.values().iterator().next();
         for (Guard guard : guards.values()) {
             if (guard.getTimesSleptMostSameMinute() > sleepy.getTimesSleptMostSameMinute()) {
                 sleepy = guard;
             }
         }
-        Log.logInfoMessage("Part 2 - Guard %d slept %d minutes total, with minute %d asleep most, %d times. Response: %d", sleepy.getId(), sleepy.getMinutesAsleep(), sleepy.getMinuteAsleepMost(),
+        Log.logDebugMessage("Part 2 - Guard %d slept %d minutes total, with minute %d asleep most, %d times. Response: %d", sleepy.getId(), sleepy.getMinutesAsleep(), sleepy.getMinuteAsleepMost(),
             sleepy.getTimesSleptMostSameMinute(), sleepy.getId() * sleepy.getMinuteAsleepMost());
+
+        return sleepy.getId() * sleepy.getMinuteAsleepMost();
     }
 
     public static void main(String[] args) throws IOException {
-        new Day004().main();
+        SolverRunner.runAndLog(4, new Day004());
     }
 }
@@ -2,28 +2,32 @@ package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.List;
 
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
 
-public class Day005 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/5/input";
-    public static String INPUT_FILE = "inputs/input005.txt";
-
+public class Day005 implements Solver {
     private static int REACT_DIFF = 'a' - 'A';
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private String initialPolymer;
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        List<String> input = Files.readAllLines(inputFile);
 
         if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
-        String polymer = input.get(0);
+        initialPolymer = input.get(0);
+    }
 
-        // ********* Part 1
+    @Override
+    public Object part1() {
+        String polymer = initialPolymer;
         char[] chain = polymer.toCharArray();
         char curr, next;
         int idx = 0, diff, reactionCount = 0;
@@ -66,15 +70,22 @@ public class Day005 {
 
         polymer = String.valueOf(chain);
 
-        // Log.logInfoMessage("Resulting polymer: %s", polymer);
-        Log.logInfoMessage("Length: %d", polymer.length());
+        Log.logDebugMessage("Resulting polymer: %s", polymer);
+        return polymer.length();
+    }
 
-        // ********* Part 2
+    @Override
+    public Object part2() {
+        String polymer;
+        char[] chain, newChain;
+        char curr, next;
+        int idx, diff, reactionCount;
+        boolean doneWork;
         int shortestLength = Integer.MAX_VALUE;
         char removedUnit = 'a';
         int removeCount;
         for (char unit = 'a'; unit <= 'z'; unit++) {
-            polymer = input.get(0);
+            polymer = initialPolymer;
             chain = polymer.toCharArray();
             removeCount = 0;
             // Remove it from the polymer
@@ -86,7 +97,7 @@ public class Day005 {
             }
 
             // Reduce the polymer by eliminating the spaces.
-            char[] newChain = new char[chain.length - removeCount];
+            newChain = new char[chain.length - removeCount];
             idx = 0;
             for (int i = 0; i < newChain.length; i++) {
                 while (chain[idx] == ' ') {
@@ -144,10 +155,12 @@ public class Day005 {
             }
         }
 
-        Log.logInfoMessage("Shortest length: %d, obtained by removing %c/%c", shortestLength, removedUnit - REACT_DIFF, removedUnit);
+        Log.logDebugMessage("Shortest length obtained by removing %c/%c", removedUnit - REACT_DIFF, removedUnit);
+
+        return shortestLength;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day005().main();
+        SolverRunner.runAndLog(5, new Day005());
     }
 }
@@ -1,19 +1,25 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.HashSet;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-
-import com.catalinionescu.adventofcode.common.Log;
-
-public class Day006 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/6/input";
-    public static String INPUT_FILE = "inputs/input006.txt";
 
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.datastructures.Coordinates;
+import com.catalinionescu.adventofcode.datastructures.GraphSearch;
+import com.catalinionescu.adventofcode.datastructures.GridGraph;
+import com.catalinionescu.adventofcode.datastructures.IntGrid;
+import com.catalinionescu.adventofcode.datastructures.LongHashSet;
+
+public class Day006 implements Solver {
     private static int MAX_DIST = 10000;
+    // Owners of the locations that are equally close to several coordinates, or not worked out yet
+    private static final int TIED = -1;
+    private static final int NO_OWNER = -2;
 
     class Coordinate {
         private final int x;
@@ -21,10 +27,10 @@ public class Day006 {
         private boolean isInfinite = false;
         private int areaSize = 0;
 
-        public Coordinate(String rawData) {
-            String[] split = rawData.split(", ");
-            x = Integer.parseInt(split[0]);
-            y = Integer.parseInt(split[1]);
+        public Coordinate(AsciiTokenizer rawData) {
+            // 181, 184
+            x = rawData.nextInt();
+            y = rawData.nextInt();
         }
 
         public int getX() {
@@ -51,19 +57,13 @@ public class Day006 {
             return areaSize;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (!(o instanceof Coordinate)) {
-                return false;
-            }
-
-            Coordinate other = (Coordinate) o;
-            return other.x == x && other.y == y;
-        }
-
-        @Override
-        public int hashCode() {
-            return (31 + x) * 31 + y;
+        /**
+         * Returns the coordinate packed into a single key.
+         * 
+         * @return
+         */
+        public long getKey() {
+            return Coordinates.pack(x, y);
         }
 
         /**
@@ -88,21 +88,32 @@ public class Day006 {
         }
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private List<Coordinate> coords = new ArrayList<>();
+    private int minX, minY, maxX, maxY;
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
+
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
-        Set<Coordinate> coords = new HashSet<>();
-        for (String line : input) {
-            coords.add(new Coordinate(line));
+        // Repeated coordinates count once
+        LongHashSet seen = new LongHashSet();
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input.buffer());
+        while (tokenizer.hasNextInt()) {
+            Coordinate coordinate = new Coordinate(tokenizer);
+            if (seen.add(coordinate.getKey())) {
+                coords.add(coordinate);
+            }
         }
 
         // Calculate a rectangle that encloses the "used" part of the infinite grid, that is the smallest rectangle that can hold all given coordinates.
-        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
         for (Coordinate c : coords) {
             if (c.getX() < minX) {
                 minX = c.getX();
@@ -123,37 +134,57 @@ public class Day006 {
         minY -= 1;
         maxX += 1;
         maxY += 1;
+    }
 
-        // ********* Part 1
-        int minMDist, dist;
-        Set<Coordinate> closestSet = new HashSet<>();
-        Coordinate closest;
-        for (int y = minY; y <= maxY; y++) {
-            for (int x = minX; x <= maxX; x++) {
-                // Minimal Manhattan distance from (x, y) to whatever coordinate. This determines if (x, y) belongs to a single area or more.
-                minMDist = Integer.MAX_VALUE;
-                closestSet.clear();
-                for (Coordinate c : coords) {
-                    dist = c.dist(x, y);
-                    if (dist < minMDist) {
-                        minMDist = dist;
-                        closestSet.clear();
-                        closestSet.add(c);
-                    } else if (dist == minMDist) {
-                        closestSet.add(c);
-                    }
+    @Override
+    public Object part1() {
+        // Spreading out from all coordinates at once reaches every location of the rectangle at its Manhattan distance from the closest coordinates, since
+        // the rectangle has no obstacles. A location belongs to an area only if all its neighbors one step closer belong to it too; a location reached from
+        // two areas, or from a tied location, is tied itself.
+        Coordinate sources[] = coords.toArray(new Coordinate[0]);
+        IntGrid owners = new IntGrid(maxX - minX + 1, maxY - minY + 1);
+        GridGraph graph = new GridGraph(owners, idx -> true);
+        int sourceCells[] = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            sourceCells[i] = owners.index(sources[i].getX() - minX, sources[i].getY() - minY);
+        }
+        GraphSearch search = new GraphSearch();
+        search.bfs(graph, sourceCells, sourceCells.length, -1);
+
+        for (int i = 0; i < sources.length; i++) {
+            owners.set(sourceCells[i], i);
+        }
+        for (int i = sources.length, settled = search.settledCount(); i < settled; i++) {
+            int idx = search.settled(i);
+            int closer = search.distance(idx) - 1;
+            int owner = NO_OWNER;
+            for (int edge = graph.edgeStart(idx), end = graph.edgeEnd(idx); edge < end; edge++) {
+                int neighbor = graph.target(idx, edge);
+                if (neighbor < 0 || search.distance(neighbor) != closer) {
+                    continue;
+                }
+
+                if (owners.get(neighbor) == TIED || (owner != NO_OWNER && owner != owners.get(neighbor))) {
+                    owner = TIED;
+                    break;
                 }
+                owner = owners.get(neighbor);
+            }
+            owners.set(idx, owner);
+        }
 
-                // (x, y) is closest to a single coordinate, means it belongs to that area.
-                if (closestSet.size() == 1) {
-                    closest = closestSet.iterator().next();
+        for (int y = 0; y < owners.getHeight(); y++) {
+            for (int x = 0; x < owners.getWidth(); x++) {
+                int owner = owners.get(x, y);
+                if (owner == TIED) {
+                    continue;
+                }
 
-                    // If (x, y) is on the border of our all enclosing rectangle means that coordinate area is infinite.
-                    if (x == minX || x == maxX || y == minY || y == maxY) {
-                        closest.setInfinite();
-                    }
-                    closest.incAreaSize();
+                // If (x, y) is on the border of our all enclosing rectangle means that coordinate area is infinite.
+                if (x == 0 || y == 0 || x == owners.getWidth() - 1 || y == owners.getHeight() - 1) {
+                    sources[owner].setInfinite();
                 }
+                sources[owner].incAreaSize();
             }
         }
 
@@ -164,10 +195,12 @@ public class Day006 {
             }
         }
 
-        Log.logInfoMessage("Size of the largest area that isn't infinite: %d", maxAreaSize);
+        return maxAreaSize;
+    }
 
-        // ********* Part 2
-        int distSum;
+    @Override
+    public Object part2() {
+        int dist, distSum;
         boolean isGood;
         int regionSize = 0;
         for (int y = minY; y <= maxY; y++) {
@@ -191,10 +224,10 @@ public class Day006 {
             }
         }
 
-        Log.logInfoMessage("Size of the region with total distance less than %d is: %d", MAX_DIST, regionSize);
+        return regionSize;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day006().main();
+        SolverRunner.runAndLog(6, new Day006());
     }
 }
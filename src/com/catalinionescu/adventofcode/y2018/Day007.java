@@ -1,26 +1,34 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.LineCursor;
 import com.catalinionescu.adventofcode.common.Log;
-
-public class Day007 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/7/input";
-    public static String INPUT_FILE = "inputs/input007.txt";
-
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.Metrics;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.datastructures.AdjacencyGraph;
+import com.catalinionescu.adventofcode.datastructures.GraphSearch;
+
+public class Day007 implements Solver {
     private static int WORKFORCE_SIZE = 5;
 
+    private static final LongAdder dispatcherTicks = Metrics.counter("day07.dispatcher.ticks");
+    private static final LongAdder workAssigned = Metrics.counter("day07.dispatcher.assignments");
+
     class Step implements Comparable<Step> {
         private final char name;
         private Set<Step> requirements = new TreeSet<>();
@@ -264,6 +272,7 @@ public class Day007 {
                 while (worker != null && iter.hasNext()) {
                     Step step = iter.next();
                     worker.setWorking(step, null);
+                    workAssigned.increment();
                     iter.remove();
                     worker = getAvailableWorker();
                 }
@@ -274,6 +283,7 @@ public class Day007 {
          * Advances time by 1 second for all workers in the managed pool.
          */
         public void timeTick() {
+            dispatcherTicks.increment();
             for (Worker worker : workers) {
                 worker.timeTick();
             }
@@ -314,58 +324,67 @@ public class Day007 {
         }
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private Map<Character, Step> steps = new TreeMap<>();
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
-        Map<Character, Step> steps = new TreeMap<>();
-        for (String line : input) {
+        LineCursor line = input.lines();
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input.buffer());
+        char req, next;
+        while (line.next()) {
             // Step G must be finished before step W can begin.
-            String[] parts = line.split(" ");
-            char req = parts[1].charAt(0);
-            char next = parts[7].charAt(0);
+            tokenizer.reset(line);
+            req = tokenizer.charAt(5);
+            next = tokenizer.charAt(36);
 
             steps.putIfAbsent(req, new Step(req));
             steps.putIfAbsent(next, new Step(next));
 
             steps.get(next).addRequirement(steps.get(req));
         }
+    }
 
-        // ********* Part 1
-        final StringBuilder sb = new StringBuilder();
-        boolean allDone = false;
-        while (!allDone) {
-            allDone = true;
-            for (Step step : steps.values()) {
-                if (step.isCompleted()) {
-                    continue;
-                }
-
-                if (step.isAvailable()) {
-                    sb.append(step.getName());
-                    step.setCompleted();
-                    allDone = false;
-                    break;
-                }
+    @Override
+    public Object part1() {
+        // Steps are numbered in alphabetical order, so taking the lowest numbered available step first is taking the first one alphabetically
+        Step ordered[] = steps.values().toArray(new Step[0]);
+        Map<Step, Integer> ids = new HashMap<>();
+        for (int i = 0; i < ordered.length; i++) {
+            ids.put(ordered[i], i);
+        }
+        AdjacencyGraph.Builder builder = new AdjacencyGraph.Builder(ordered.length);
+        for (int i = 0; i < ordered.length; i++) {
+            for (Step requirement : ordered[i].requirements) {
+                builder.addEdge(ids.get(requirement), i);
             }
         }
 
-        Log.logInfoMessage("Order of steps is: %s", sb.toString());
+        GraphSearch search = new GraphSearch();
+        int count = search.topologicalOrder(builder.build());
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(ordered[search.settled(i)].getName());
+        }
+
+        return sb.toString();
+    }
 
-        // ********* Part 2
+    @Override
+    public Object part2() {
+        final StringBuilder sb = new StringBuilder();
         for (Step step : steps.values()) {
             step.resetCompleted();
         }
 
         Dispatcher dispatcher = new Dispatcher(WORKFORCE_SIZE);
         int timeElapsed = 0;
-        allDone = false;
-
-        sb.setLength(0);
+        boolean allDone = false;
 
         while (!allDone || !dispatcher.isAllWorkDone()) {
             allDone = true;
@@ -385,7 +404,9 @@ public class Day007 {
             // Work on the added steps (consumer side)
             if (!dispatcher.isAllWorkDone()) {
                 dispatcher.processQueuedWork();
-                // Log.logInfoMessage("%02d %s %s", timeElapsed, dispatcher.toString(), sb.toString());
+                if (Log.isDebugEnabled()) {
+                    Log.logDebugMessage("%02d %s %s", timeElapsed, dispatcher.toString(), sb.toString());
+                }
                 timeElapsed++;
                 dispatcher.timeTick();
             }
@@ -401,11 +422,13 @@ public class Day007 {
             }
         }
 
-        // Log.logInfoMessage("%02d %s %s", timeElapsed, dispatcher.toString(), sb.toString());
-        Log.logInfoMessage("Time required to complete all steps: %d", timeElapsed);
+        if (Log.isDebugEnabled()) {
+            Log.logDebugMessage("%02d %s %s", timeElapsed, dispatcher.toString(), sb.toString());
+        }
+        return timeElapsed;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day007().main();
+        SolverRunner.runAndLog(7, new Day007());
     }
 }
@@ -1,38 +1,39 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
 
-public class Day008 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/8/input";
-    public static String INPUT_FILE = "inputs/input008.txt";
-
+public class Day008 implements Solver {
     class Node {
         // primitive array indexing is *significantly* faster than iterating over collection
         private int metadata[];
         private int metaSum = 0;
         private int addIdx = 0;
-        private List<Node> children = new LinkedList<>();
+        // Looked up by index in part 2
+        private final List<Node> children;
 
-        public Node(int metadataSize) {
+        public Node(int childCount, int metadataSize) {
             metadata = new int[metadataSize];
+            children = new ArrayList<>(childCount);
         }
 
         public void addChild(Node node) {
             children.add(node);
         }
 
-        public void addMetadata(Integer data) {
-            metadata[addIdx] = data.intValue();
+        public void addMetadata(int data) {
+            metadata[addIdx] = data;
             addIdx++;
-            metaSum += data.intValue();
+            metaSum += data;
         }
 
         public int getMetadataSum() {
@@ -54,10 +55,10 @@ public class Day008 {
         }
     }
 
-    private void parseNode(Queue<Integer> queue, Collection<Node> allNodes, Node parentNode) {
-        int childCount = queue.remove();
-        int metadataCount = queue.remove();
-        Node node = new Node(metadataCount);
+    private void parseNode(AsciiTokenizer tokenizer, Collection<Node> allNodes, Node parentNode) {
+        int childCount = tokenizer.nextInt();
+        int metadataCount = tokenizer.nextInt();
+        Node node = new Node(childCount, metadataCount);
         allNodes.add(node);
 
         if (parentNode != null) {
@@ -66,51 +67,49 @@ public class Day008 {
 
         if (childCount != 0) {
             for (int i = 0; i < childCount; i++) {
-                parseNode(queue, allNodes, node);
+                parseNode(tokenizer, allNodes, node);
             }
         }
 
         if (metadataCount > 0) {
             for (int i = 0; i < metadataCount; i++) {
-                node.addMetadata(queue.remove());
+                node.addMetadata(tokenizer.nextInt());
             }
         }
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private List<Node> nodes = new ArrayList<>();
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
-        }
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
 
-        Queue<Integer> queue = new LinkedList<>();
-        for (String line : input) {
-            String[] parts = line.split(" ");
-            for (String part : parts) {
-                queue.add(Integer.parseInt(part));
-            }
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
-        List<Node> nodes = new LinkedList<>();
-        parseNode(queue, nodes, null);
+        // The tree is built as the numbers are read, no need to hold them all first
+        parseNode(new AsciiTokenizer(input.buffer()), nodes, null);
 
         Log.logInfoMessage("Parsed %d nodes.", nodes.size());
+    }
 
-        // ********* Part 1
+    @Override
+    public Object part1() {
         int sum = 0;
         for (Node node : nodes) {
             sum += node.getMetadataSum();
         }
 
-        Log.logInfoMessage("Sum of all metadata values: %d", sum);
+        return sum;
+    }
 
-        // ********* Part 2
-        Log.logInfoMessage("Sum of the root node: %d", nodes.get(0).part2Sum());
+    @Override
+    public Object part2() {
+        return nodes.get(0).part2Sum();
     }
 
     public static void main(String[] args) throws IOException {
-        new Day008().main();
+        SolverRunner.runAndLog(8, new Day008());
     }
 }
@@ -1,111 +1,215 @@
 package com.catalinionescu.adventofcode.y2018;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.Checkpoint;
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.Metrics;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
 
-public class Day009 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/9/input";
-    public static String INPUT_FILE = "inputs/input009.txt";
+public class Day009 implements Solver {
+    private static final LongAdder marblesPlayed = Metrics.counter("day09.marbles");
+    // Rounds between snapshots when checkpoints are on
+    private static final long CHECKPOINT_ROUNDS = 1_000_000;
 
-    class Node {
-        int value;
-        Node next;
-        Node prev;
-
-        public Node(Node prev, int value, Node next) {
-            this.value = value;
-            if (next == null) {
-                next = this;
-            }
-            this.next = next;
-            if (prev == null) {
-                prev = this;
-            }
-            this.prev = prev;
-        }
-    }
+    // Marble circle: marbles are numbered by value, and the marbles next to marble m clockwise and counter-clockwise are next[m] and prev[m]
+    private int next[];
+    private int prev[];
 
     /**
-     * Adds a node 2 places to the right of the current node.
+     * Adds a marble 2 places to the right of the current marble.
      * 
-     * @param current Current node
-     * @param value Value of the new node
-     * @return The new node
+     * @param current Current marble
+     * @param value Value of the new marble
+     * @return The new marble
      */
-    private Node addAfter(Node current, int value) {
-        Node newNode = new Node(current.next, value, current.next.next);
-        current.next.next.prev = newNode;
-        current.next.next = newNode;
-        return newNode;
+    private int addAfter(int current, int value) {
+        int left = next[current];
+        int right = next[left];
+        prev[value] = left;
+        next[value] = right;
+        next[left] = value;
+        prev[right] = value;
+        return value;
     }
 
     /**
-     * Removes the node 7 places to the left of the current node.
+     * Removes the marble 7 places to the left of the current marble.
      * 
-     * @param current Current node
-     * @return Node that was removed
+     * @param current Current marble
+     * @return Marble that was removed
      */
-    private Node removeBefore(Node current) {
+    private int removeBefore(int current) {
         for (int i = 0; i < 7; i++) {
-            current = current.prev;
+            current = prev[current];
         }
 
-        current.prev.next = current.next;
-        current.next.prev = current.prev;
+        next[prev[current]] = next[current];
+        prev[next[current]] = prev[current];
 
         return current;
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private int playerCount;
+    private int configRounds;
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
+
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
-        String parts[] = input.get(0).split(" ");
-        int playerCount = Integer.parseInt(parts[0]);
-        int configRounds = Integer.parseInt(parts[6]);
+        // 424 players; last marble is worth 71144 points
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input.buffer());
+        playerCount = tokenizer.nextInt();
+        configRounds = tokenizer.nextInt();
 
         Log.logInfoMessage("Players: %d Rounds: %d", playerCount, configRounds);
+    }
 
-        int bothPartRounds[] = { configRounds, configRounds * 100 };
-        int part = 1;
-        for (int round : bothPartRounds) {
-            long elvesScores[] = new long[playerCount];
-
-            Node current = new Node(null, 0, null);
-            int currentPlayer;
-            for (int i = 1; i <= round; i++) {
-                if (i % 23 == 0) {
-                    currentPlayer = i % playerCount;
-                    elvesScores[currentPlayer] += i;
-                    current = removeBefore(current);
-                    elvesScores[currentPlayer] += current.value;
-                    current = current.next;
-                } else {
-                    current = addAfter(current, i);
+    /**
+     * Writes the state of the game after a round: the round, the scores and the marbles clockwise from the current one.
+     * 
+     * @param out Snapshot
+     * @param round Last round played
+     * @param elvesScores Scores
+     * @param current Current marble
+     * @throws IOException If the snapshot can't be written
+     */
+    private void writeState(DataOutput out, int round, long elvesScores[], int current) throws IOException {
+        out.writeInt(round);
+        out.writeInt(elvesScores.length);
+        for (long score : elvesScores) {
+            out.writeLong(score);
+        }
+
+        int marbles = 1;
+        for (int marble = next[current]; marble != current; marble = next[marble]) {
+            marbles++;
+        }
+        out.writeInt(marbles);
+        int marble = current;
+        for (int i = 0; i < marbles; i++, marble = next[marble]) {
+            out.writeInt(marble);
+        }
+    }
+
+    /**
+     * Rebuilds the circle of marbles from a snapshot written by {@link #writeState(DataOutput, int, long[], int)}, after the round and the scores.
+     * 
+     * @param in Snapshot
+     * @return Current marble
+     * @throws IOException If the snapshot can't be read
+     */
+    private int readCircle(DataInput in) throws IOException {
+        int marbles = in.readInt();
+        int current = in.readInt();
+        int last = current;
+        for (int i = 1; i < marbles; i++) {
+            int marble = in.readInt();
+            next[last] = marble;
+            prev[marble] = last;
+            last = marble;
+        }
+        next[last] = current;
+        prev[current] = last;
+        return current;
+    }
+
+    /**
+     * Plays the marble game for the given number of rounds. With checkpoints on, the game is saved every so many rounds and resumed from the last save.
+     * 
+     * @param round Number of rounds to play
+     * @return Highest elf score
+     */
+    private long play(int round) {
+        long elvesScores[] = new long[playerCount];
+        next = new int[round + 1];
+        prev = new int[round + 1];
+        int current = -1;
+        int first = 1;
+
+        Checkpoint checkpoint = Checkpoint.open("day09", ((long) playerCount << 32) | round, CHECKPOINT_ROUNDS);
+        DataInput snapshot = checkpoint.resume();
+        if (snapshot != null) {
+            try {
+                first = snapshot.readInt() + 1;
+                if (snapshot.readInt() == playerCount) {
+                    for (int i = 0; i < playerCount; i++) {
+                        elvesScores[i] = snapshot.readLong();
+                    }
+                    current = readCircle(snapshot);
                 }
+            } catch (IOException e) {
+                Log.logWarningMessage("Can't resume day 9: %s", e);
             }
+        }
+        if (current < 0) {
+            Arrays.fill(elvesScores, 0);
+            // Marble 0 alone in the circle is its own neighbour
+            next[0] = 0;
+            prev[0] = 0;
+            current = 0;
+            first = 1;
+        }
 
-            long highestScore = 0;
-            for (int i = 0; i < elvesScores.length; i++) {
-                if (elvesScores[i] > highestScore) {
-                    highestScore = elvesScores[i];
-                }
+        int currentPlayer;
+        long nextCheckpoint = checkpoint.next(first - 1);
+        for (int i = first; i <= round; i++) {
+            if (i % 23 == 0) {
+                // Counting in steps of 23 keeps the counter out of the common path
+                marblesPlayed.add(23);
+                currentPlayer = i % playerCount;
+                elvesScores[currentPlayer] += i;
+                current = removeBefore(current);
+                elvesScores[currentPlayer] += current;
+                current = next[current];
+            } else {
+                current = addAfter(current, i);
             }
 
-            Log.logInfoMessage("High score for part %d is: %d", part, highestScore);
-            part++;
+            if (i == nextCheckpoint) {
+                int played = i;
+                int marble = current;
+                checkpoint.save(out -> writeState(out, played, elvesScores, marble));
+                nextCheckpoint = checkpoint.next(i);
+            }
         }
+        checkpoint.finish();
+        next = null;
+        prev = null;
+
+        long highestScore = 0;
+        for (int i = 0; i < elvesScores.length; i++) {
+            if (elvesScores[i] > highestScore) {
+                highestScore = elvesScores[i];
+            }
+        }
+
+        return highestScore;
+    }
+
+    @Override
+    public Object part1() {
+        return play(configRounds);
+    }
+
+    @Override
+    public Object part2() {
+        return play(configRounds * 100);
     }
 
     public static void main(String[] args) throws IOException {
-        new Day009().main();
+        SolverRunner.runAndLog(9, new Day009());
     }
 }
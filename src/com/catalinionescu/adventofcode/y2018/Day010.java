@@ -1,74 +1,52 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
-
-import com.catalinionescu.adventofcode.common.Log;
-
-public class Day010 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/10/input";
-    public static String INPUT_FILE = "inputs/input010.txt";
-
-    class Point {
-        private int x;
-        private int y;
-        private final int vx;
-        private final int vy;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.datastructures.Coordinates;
+import com.catalinionescu.adventofcode.datastructures.SpatialHash;
+
+public class Day010 implements Solver {
+    // Positions and velocities of the points, packed, so a tick is one addition per point
+    private long positions[] = new long[64];
+    private long velocities[] = new long[64];
+    private int pointCount = 0;
+    private int seconds = 0;
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
+
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
+        }
 
-        public Point(String raw) {
+        AsciiTokenizer tokenizer = new AsciiTokenizer(input.buffer());
+        while (tokenizer.hasNextInt()) {
             // position=< 52484, -20780> velocity=<-5, 2>
             // position=<-52068, 31483> velocity=< 5, -3>
-            String parts[] = raw.split("<");
-            String posParts[] = parts[1].substring(0, parts[1].indexOf('>')).split(",");
-            x = Integer.parseInt(posParts[0].trim());
-            y = Integer.parseInt(posParts[1].trim());
-            String velParts[] = parts[2].substring(0, parts[2].length() - 1).split(",");
-            vx = Integer.parseInt(velParts[0].trim());
-            vy = Integer.parseInt(velParts[1].trim());
-        }
-
-        public void tick() {
-            x += vx;
-            y += vy;
-        }
-
-        public void reverseTick() {
-            x -= vx;
-            y -= vy;
-        }
-
-        public int getX() {
-            return x;
-        }
-
-        public int getY() {
-            return y;
-        }
-
-        public boolean atCoords(int x, int y) {
-            return this.x == x && this.y == y;
+            if (pointCount == positions.length) {
+                positions = Arrays.copyOf(positions, pointCount * 2);
+                velocities = Arrays.copyOf(velocities, pointCount * 2);
+            }
+            int x = tokenizer.nextInt();
+            int y = tokenizer.nextInt();
+            positions[pointCount] = Coordinates.pack(x, y);
+            velocities[pointCount] = Coordinates.delta(tokenizer.nextInt(), tokenizer.nextInt());
+            pointCount++;
         }
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
-
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
-        }
-
-        List<Point> points = new ArrayList<>();
-        for (String line : input) {
-            points.add(new Point(line));
-        }
+    @Override
+    public Object part1() {
 
         int minX = Integer.MIN_VALUE, maxX = Integer.MAX_VALUE, minY = Integer.MIN_VALUE, maxY = Integer.MAX_VALUE;
         int xDiff = Integer.MAX_VALUE, yDiff = Integer.MAX_VALUE;
-        int seconds = 0;
         boolean first = true;
 
         // To have the lights spell out something, points have to be close together. We warp time while both dimensions keep decreasing and stop when we
@@ -86,75 +64,56 @@ public class Day010 {
             minY = Integer.MAX_VALUE;
             maxY = Integer.MIN_VALUE;
 
-            for (Point point : points) {
-                point.tick();
+            for (int i = 0; i < pointCount; i++) {
+                long position = positions[i] += velocities[i];
+                int x = Coordinates.x(position);
+                int y = Coordinates.y(position);
 
-                if (point.getX() < minX) {
-                    minX = point.getX();
+                if (x < minX) {
+                    minX = x;
                 }
-                if (point.getX() > maxX) {
-                    maxX = point.getX();
+                if (x > maxX) {
+                    maxX = x;
                 }
 
-                if (point.getY() < minY) {
-                    minY = point.getY();
+                if (y < minY) {
+                    minY = y;
                 }
-                if (point.getY() > maxY) {
-                    maxY = point.getY();
+                if (y > maxY) {
+                    maxY = y;
                 }
             }
             seconds++;
         } while ((maxX - minX) < xDiff && (maxY - minY) < yDiff);
 
-        // Since we detected an increase on either X or Y axis, we're 1 step too far. So we back off 1 step to get the message.
-        minX = Integer.MAX_VALUE;
-        maxX = Integer.MIN_VALUE;
-        minY = Integer.MAX_VALUE;
-        maxY = Integer.MIN_VALUE;
-        for (Point point : points) {
-            if (point.getX() < minX) {
-                minX = point.getX();
-            }
-            if (point.getX() > maxX) {
-                maxX = point.getX();
-            }
-
-            if (point.getY() < minY) {
-                minY = point.getY();
-            }
-            if (point.getY() > maxY) {
-                maxY = point.getY();
-            }
-
-            point.reverseTick();
+        // Since we detected an increase on either X or Y axis, we're 1 step too far. So we back off 1 step to get the message, lighting up the points on a
+        // sparse plane as we go. The message is framed by the bounding box of the step too far.
+        SpatialHash lights = new SpatialHash();
+        for (int i = 0; i < pointCount; i++) {
+            long position = positions[i] -= velocities[i];
+            lights.set(Coordinates.x(position), Coordinates.y(position), 1);
         }
         seconds--;
 
-        // Display the message
+        // Render the message
+        StringBuilder sb = new StringBuilder();
         for (int y = minY; y <= maxY; y++) {
+            sb.append(System.lineSeparator());
             for (int x = minX; x <= maxX; x++) {
-                boolean found = false;
-                for (Point point : points) {
-                    if (point.atCoords(x, y)) {
-                        found = true;
-                        break;
-                    }
-                }
-
-                if (found) {
-                    System.out.print("#");
-                } else {
-                    System.out.print(".");
-                }
+                sb.append(lights.contains(x, y) ? '#' : '.');
             }
-            System.out.println("");
         }
 
-        // Part 2 -- display the seconds we warped
-        System.out.println(String.format("Seconds: %d", seconds));
+        return sb.toString();
+    }
+
+    @Override
+    public Object part2() {
+        // The seconds we warped while looking for the message in part 1
+        return seconds;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day010().main();
+        SolverRunner.runAndLog(10, new Day010());
     }
 }
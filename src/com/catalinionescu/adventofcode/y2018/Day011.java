@@ -1,16 +1,15 @@
 package com.catalinionescu.adventofcode.y2018;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.List;
+import java.nio.file.Path;
 
-import com.catalinionescu.adventofcode.common.Log;
-
-public class Day011 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/11/input";
-    public static String INPUT_FILE = "inputs/input011.txt";
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.datastructures.IntGrid;
 
+public class Day011 implements Solver {
     private static int GRID_SIZE = 300;
 
     public int powerLevel(int serial, int x, int y) {
@@ -34,41 +33,53 @@ public class Day011 {
         return digit;
     }
 
-    public int gridSum(int grid[][], int topLeftX, int topLeftY, int size) {
+    public int gridSum(IntGrid grid, int topLeftX, int topLeftY, int size) {
         int result = 0;
+        int cells[] = grid.cells();
 
+        // Each row of the square is a run of consecutive cells
         for (int y = topLeftY + size - 1; y >= topLeftY; y--) {
-            for (int x = topLeftX + size - 1; x >= topLeftX; x--) {
-                result += grid[x][y];
+            for (int idx = grid.index(topLeftX, y), last = idx + size; idx < last; idx++) {
+                result += cells[idx];
             }
         }
 
         return result;
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private IntGrid grid = new IntGrid(GRID_SIZE, GRID_SIZE);
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        MappedInput input = MappedInput.map(inputFile);
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+        if (input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
-        int serial = Integer.parseInt(input.get(0));
+        int serial = new AsciiTokenizer(input.buffer()).nextInt();
 
-        int grid[][] = new int[GRID_SIZE][GRID_SIZE];
         for (int y = 0; y < GRID_SIZE; y++) {
             for (int x = 0; x < GRID_SIZE; x++) {
-                grid[x][y] = powerLevel(serial, x, y);
+                grid.set(x, y, powerLevel(serial, x, y));
             }
         }
+    }
 
+    /**
+     * Finds the square with the largest total power, for all square sizes in the given range.
+     * 
+     * @param minSize Smallest square size
+     * @param maxSize Largest square size
+     * @return Top left corner and size of the square, as int[] { x, y, size }
+     */
+    private int[] findLargestSquare(int minSize, int maxSize) {
         int maxSum = Integer.MIN_VALUE;
         int cornerX = 0;
         int cornerY = 0;
         int sqSize = 0;
         int sum;
-        for (int size = 1; size <= GRID_SIZE; size++) {
+        for (int size = minSize; size <= maxSize; size++) {
             for (int y = 0; y < GRID_SIZE - size; y++) {
                 for (int x = 0; x < GRID_SIZE - size; x++) {
                     sum = gridSum(grid, x, y, size);
@@ -82,11 +93,22 @@ public class Day011 {
             }
         }
 
-        Log.logInfoMessage("x: %d, y: %d, size: %d", cornerX, cornerY, sqSize);
+        return new int[] { cornerX, cornerY, sqSize };
     }
 
-    public static void main(String[] args) throws IOException {
-        new Day011().main();
+    @Override
+    public Object part1() {
+        int square[] = findLargestSquare(3, 3);
+        return String.format("%d,%d", square[0], square[1]);
     }
 
+    @Override
+    public Object part2() {
+        int square[] = findLargestSquare(1, GRID_SIZE);
+        return String.format("%d,%d,%d", square[0], square[1], square[2]);
+    }
+
+    public static void main(String[] args) throws IOException {
+        SolverRunner.runAndLog(11, new Day011());
+    }
 }
@@ -1,25 +1,31 @@
 package com.catalinionescu.adventofcode.y2018;
 
+import java.io.DataInput;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.catalinionescu.adventofcode.common.Checkpoint;
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.Metrics;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
 
-public class Day012 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/12/input";
-    public static String INPUT_FILE = "inputs/input012.txt";
+public class Day012 implements Solver {
+    private static final LongAdder generationsComputed = Metrics.counter("day12.generations");
+    // Generations between snapshots when checkpoints are on
+    private static final long CHECKPOINT_GENERATIONS = 10;
 
     // *** Part 1
     private static int GENERATIONS = 20;
-
-    // *** For part 2, pick a number high enough to produce stabilization of the plant growth pattern (e.g. same pattern, just perhaps shifted to the right or
-    // left)
-    // private static int GENERATIONS = 200;
+    // Part 2 gives up on patterns that don't settle into a shifting steady state within this many generations
+    private static final int MAX_SETTLE_GENERATIONS = 1_000;
     private static long PART2_GENERATIONS = 50000000000L;
 
     class Pattern {
@@ -111,69 +117,162 @@ public class Day012 {
         return result;
     }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private String initialPots;
+    private List<Pattern> patterns = new ArrayList<>();
+    private long inputFingerprint;
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        List<String> input = Files.readAllLines(inputFile);
 
         if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
+        inputFingerprint = Checkpoint.fingerprint(input);
         Iterator<String> iter = input.iterator();
 
         String parts[] = iter.next().split(":");
-        String currentPots = parts[1].trim();
+        initialPots = parts[1].trim();
         // skip the blank line
         iter.next();
 
-        List<Pattern> patterns = new ArrayList<>();
         // Parse the patterns
         while (iter.hasNext()) {
             patterns.add(new Pattern(iter.next()));
         }
+    }
 
-        // Log.logInfoMessage("0: %s (%d)", currentPots, leftmostPot);
-        String initialPots = currentPots;
-        int prevSum = 0;
-        for (int i = 0; i < GENERATIONS; i++) {
-            leftmostPot = 0;
-            currentPots = initialPots;
-            for (int j = 0; j <= i; j++) {
-                currentPots = append(prepend(trim(currentPots)));
-                char oldPots[] = currentPots.toCharArray();
-                char pots[] = new char[oldPots.length];
-                Arrays.fill(pots, '.');
-                for (int potIdx = 0, len = currentPots.length() - 5; potIdx < len; potIdx++) {
-                    for (Pattern pattern : patterns) {
-                        if (pattern.matches(oldPots, potIdx)) {
-                            pots[potIdx + 2] = pattern.outcome;
-                            break;
-                        }
-                    }
+    /**
+     * Computes the next generation.
+     * 
+     * @param currentPots Current generation
+     * @return Next generation
+     */
+    private String nextGeneration(String currentPots) {
+        currentPots = append(prepend(trim(currentPots)));
+        char oldPots[] = currentPots.toCharArray();
+        char pots[] = new char[oldPots.length];
+        Arrays.fill(pots, '.');
+        for (int potIdx = 0, len = currentPots.length() - 5; potIdx < len; potIdx++) {
+            for (Pattern pattern : patterns) {
+                if (pattern.matches(oldPots, potIdx)) {
+                    pots[potIdx + 2] = pattern.outcome;
+                    break;
                 }
-                currentPots = new String(pots);
-                // Log.logInfoMessage("%d: %s (%d)", i + 1, currentPots, leftmostPot);
+            }
+        }
+        generationsComputed.increment();
+        return new String(pots);
+    }
+
+    @Override
+    public Object part1() {
+        leftmostPot = 0;
+        String currentPots = initialPots;
+        int first = 0;
+        int prevSum = 0;
+
+        // Each generation follows from the previous one, so a snapshot of the last generation is all it takes to resume
+        Checkpoint checkpoint = Checkpoint.open("day12", inputFingerprint, CHECKPOINT_GENERATIONS);
+        DataInput snapshot = checkpoint.resume();
+        if (snapshot != null) {
+            try {
+                int generation = snapshot.readInt();
+                int pot = snapshot.readInt();
+                int sum = snapshot.readInt();
+                byte pots[] = new byte[snapshot.readInt()];
+                snapshot.readFully(pots);
+                first = generation;
+                leftmostPot = pot;
+                prevSum = sum;
+                currentPots = new String(pots, StandardCharsets.US_ASCII);
+            } catch (IOException e) {
+                Log.logWarningMessage("Can't resume day 12: %s", e);
+            }
+        }
+
+        Log.logDebugMessage("%d: %s (%d)", first, currentPots, leftmostPot);
+        long nextCheckpoint = checkpoint.next(first);
+        for (int i = first; i < GENERATIONS; i++) {
+            currentPots = nextGeneration(currentPots);
+            if (Log.isDebugEnabled()) {
+                Log.logDebugMessage("%d: %s (%d)", i + 1, currentPots, leftmostPot);
             }
 
             int currentSum = countAlive(currentPots);
-            Log.logInfoMessage("Generation: %d Sum: %d Diff: %d", i, currentSum, currentSum - prevSum);
+            if (Log.isDebugEnabled()) {
+                Log.logDebugMessage("Generation: %d Sum: %d Diff: %d", i, currentSum, currentSum - prevSum);
+            }
             prevSum = currentSum;
+
+            if (i + 1 == nextCheckpoint) {
+                int generation = i + 1;
+                int sum = currentSum;
+                String pots = currentPots;
+                checkpoint.save(out -> {
+                    out.writeInt(generation);
+                    out.writeInt(leftmostPot);
+                    out.writeInt(sum);
+                    out.writeInt(pots.length());
+                    out.writeBytes(pots);
+                });
+                nextCheckpoint = checkpoint.next(generation);
+            }
+        }
+        checkpoint.finish();
+
+        return prevSum;
+    }
+
+    /**
+     * Finds the index of the first or last plant in a generation.
+     * 
+     * @param pots Generation
+     * @param last True for the last plant, false for the first one
+     * @return Index in the string, or -1 if there are no plants
+     */
+    private static int plantBound(String pots, boolean last) {
+        return last ? pots.lastIndexOf('#') : pots.indexOf('#');
+    }
+
+    /**
+     * Grows the plants until the pattern stops changing and only shifts from one generation to the next. The rules don't depend on where the pots are, so
+     * from then on every generation is the previous one shifted by the same amount and the sum grows by the same difference, which gives the sum after any
+     * number of generations without computing them. The puzzle input settles after about a hundred generations.
+     * 
+     * @return Sum after {@link #PART2_GENERATIONS}, or null if the pattern doesn't settle within {@link #MAX_SETTLE_GENERATIONS}
+     */
+    @Override
+    public Object part2() {
+        leftmostPot = 0;
+        String currentPots = initialPots;
+        long currentSum = countAlive(currentPots);
+
+        for (int i = 0; i < MAX_SETTLE_GENERATIONS; i++) {
+            int currentLeftmost = leftmostPot;
+            String nextPots = nextGeneration(currentPots);
+            long nextSum = countAlive(nextPots);
+
+            int first = plantBound(currentPots, false), last = plantBound(currentPots, true);
+            int nextFirst = plantBound(nextPots, false), nextLast = plantBound(nextPots, true);
+            if (nextLast - nextFirst == last - first && nextPots.regionMatches(nextFirst, currentPots, first, last - first + 1)) {
+                Log.logDebugMessage("Pattern settles at generation %d, sum %d grows by %d", i + 1, nextSum, nextSum - currentSum);
+                return nextSum + (PART2_GENERATIONS - (i + 1)) * (nextSum - currentSum);
+            }
+            if (Log.isDebugEnabled()) {
+                Log.logDebugMessage("Generation: %d Sum: %d Shift: %d", i + 1, nextSum, leftmostPot + nextFirst - currentLeftmost - first);
+            }
+
+            currentPots = nextPots;
+            currentSum = nextSum;
         }
 
-        /*
-         * Part 2
-         * 
-         * To run the program for second puzzle, comment first GENERATIONS and uncomment the second.
-         * 
-         * After running the program once, we notice at generation 102 the output pattern stabilizes and it just shifts right but doesn't change. The sum of
-         * the alive plant pot indices increases by 69 per generation. So, to produce the puzzle answer, we just multiply the generations after 102 by 69 and
-         * add the fixed (non-shifting) part we got at generation 102.
-         */
-        long part2Response = 9306 + (PART2_GENERATIONS - 102) * 69;
-        Log.logInfoMessage("After %d generations, sum of all pots is: %d", PART2_GENERATIONS, part2Response);
+        Log.logInfoMessage("The plants don't settle within %d generations", MAX_SETTLE_GENERATIONS);
+        return null;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day012().main();
+        SolverRunner.runAndLog(12, new Day012());
     }
 }
@@ -1,20 +1,29 @@
 package com.catalinionescu.adventofcode.y2018;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.catalinionescu.adventofcode.common.Checkpoint;
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.Metrics;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
+import com.catalinionescu.adventofcode.datastructures.ByteGrid;
+import com.catalinionescu.adventofcode.datastructures.IntHashSet;
+import com.catalinionescu.adventofcode.datastructures.IntObjectMap;
 import com.catalinionescu.adventofcode.datastructures.MoveDirection;
 
-public class Day013 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/13/input";
-    public static String INPUT_FILE = "inputs/input013.txt";
+public class Day013 implements Solver {
+    private static final LongAdder ticks = Metrics.counter("day13.ticks");
+    private static final LongAdder crashes = Metrics.counter("day13.crashes");
+    // Ticks between snapshots when checkpoints are on
+    private static final long CHECKPOINT_TICKS = 10_000;
 
     enum TrackType {
         VERT('|'),
@@ -34,7 +43,7 @@ public class Day013 {
         }
     }
 
-    private static Map<Character, TrackType> trackTypes = new HashMap<>();
+    private static IntObjectMap<TrackType> trackTypes = new IntObjectMap<>();
     static {
         for (TrackType type : TrackType.values()) {
             trackTypes.put(type.getCh(), type);
@@ -61,7 +70,7 @@ public class Day013 {
         return trackTypes.containsKey(ch);
     }
 
-    private static Map<Character, MoveDirection> moveDirections = new HashMap<>();
+    private static IntObjectMap<MoveDirection> moveDirections = new IntObjectMap<>();
     static {
         for (MoveDirection dir : MoveDirection.values()) {
             moveDirections.put(dir.getCh(), dir);
@@ -111,10 +120,11 @@ public class Day013 {
     TurnOptions cartTurnOptions[] = { TurnOptions.LEFT, TurnOptions.STRAIGHT, TurnOptions.RIGHT };
 
     static class UniqueCartId {
-        private static int uuid = 0;
+        // Solvers may run on several threads at once
+        private static final AtomicInteger uuid = new AtomicInteger();
 
         public static int getUUID() {
-            return uuid++;
+            return uuid.getAndIncrement();
         }
     }
 
@@ -236,6 +246,10 @@ public class Day013 {
             return direction;
         }
 
+        public int getId() {
+            return uuid;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (!(o instanceof Cart)) {
@@ -251,172 +265,223 @@ public class Day013 {
         }
     }
 
-    class Track {
-        private final TrackType type;
-        private Cart cart = null;
-        private boolean hasCrash = false;
-
-        public Track(TrackType type) {
-            this.type = type;
-        }
-
-        public TrackType getType() {
-            return type;
-        }
+    // Track cells hold the track type ordinal + 1, so that 0 means no track
+    private static final byte NO_TRACK = 0;
+    private static final TrackType TRACK_TYPES[] = TrackType.values();
 
-        public boolean hasCart() {
-            return cart != null;
+    public void printTrackState(ByteGrid tracks, Cart carts[]) {
+        for (int y = 0; y < tracks.getHeight(); y++) {
+            StringBuffer sb = new StringBuffer();
+            for (int idx = tracks.index(0, y), last = idx + tracks.getWidth(); idx < last; idx++) {
+                if (carts[idx] != null) {
+                    sb.append(carts[idx].getMoveDirection().getCh());
+                } else if (tracks.get(idx) == NO_TRACK) {
+                    sb.append(' ');
+                } else {
+                    sb.append(TRACK_TYPES[tracks.get(idx) - 1].getCh());
+                }
+            }
+            Log.logDebugMessage("%s", sb.toString());
         }
+    }
 
-        public void setCart(Cart cart) {
-            this.cart = cart;
-        }
+    private List<String> input;
+    private int maxX = 0;
+    private int maxY = 0;
+    private ByteGrid tracks;
+    private long inputFingerprint;
 
-        public Cart getCart() {
-            return cart;
-        }
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        input = Files.readAllLines(inputFile);
 
-        public void clearCart() {
-            cart = null;
+        if (input == null || input.isEmpty()) {
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
-        public boolean hasCrash() {
-            return hasCrash;
+        // Lines may start with blanks and blank lines still take a row, so the layout is as wide as the longest line and as tall as the input
+        for (String line : input) {
+            if (line.length() > maxX) {
+                maxX = line.length();
+            }
         }
+        maxY = input.size();
+        inputFingerprint = Checkpoint.fingerprint(input);
 
-        public void setCrash() {
-            hasCrash = true;
-        }
+        Log.logInfoMessage("Track dimensions: x - %d, y - %d", maxX, maxY);
 
-        public void clearCrash() {
-            hasCrash = false;
+        // The tracks never change, only the carts move, so both parts share the same layout
+        tracks = new ByteGrid(maxX, maxY);
+        int y = 0;
+        for (String line : input) {
+            for (int x = 0; x < line.length(); x++) {
+                char ch = line.charAt(x);
+                if (isCart(ch)) {
+                    tracks.set(x, y, (byte) (cartToTrackType(ch).ordinal() + 1));
+                } else if (isTrackType(ch)) {
+                    tracks.set(x, y, (byte) (charToTrackType(ch).ordinal() + 1));
+                }
+            }
+            y++;
         }
     }
 
-    public void printTrackState(Track tracks[][], int maxX, int maxY) {
-        for (int y = 0; y < maxY; y++) {
-            StringBuffer sb = new StringBuffer();
-            for (int x = 0; x < maxX; x++) {
-                if (tracks[x][y] == null) {
-                    sb.append(' ');
-                } else if (tracks[x][y].hasCart()) {
-                    sb.append(tracks[x][y].getCart().getMoveDirection().getCh());
-                } else {
-                    sb.append(tracks[x][y].getType().getCh());
+    /**
+     * Puts the carts on the tracks in their initial position. Each part runs its own simulation, so each needs a fresh set of carts.
+     * 
+     * @return Carts, indexed by the index of the track cell they're on
+     */
+    private Cart[] placeCarts() {
+        Cart carts[] = new Cart[tracks.size()];
+        int y = 0;
+        for (String line : input) {
+            for (int x = 0; x < line.length(); x++) {
+                if (isCart(line.charAt(x))) {
+                    carts[tracks.index(x, y)] = new Cart(charToMoveDirection(line.charAt(x)));
                 }
             }
-            Log.logInfoMessage("%s", sb.toString());
+            y++;
         }
-    }
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+        return carts;
+    }
 
-        if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+    /**
+     * Writes the carts left after a tick: the tick, then the position, direction and next junction turn of each cart.
+     * 
+     * @param out Snapshot
+     * @param tick Last tick done
+     * @param carts Carts, indexed by track cell
+     * @throws IOException If the snapshot can't be written
+     */
+    private void writeCarts(DataOutput out, long tick, Cart carts[]) throws IOException {
+        int count = 0;
+        for (Cart cart : carts) {
+            if (cart != null) {
+                count++;
+            }
         }
 
-        int maxX = 0;
-        int maxY = 0;
-        int length;
-        for (String line : input) {
-            length = line.trim().length();
-            if (length > maxX) {
-                maxX = length;
-            }
-            if (length > 0) {
-                maxY++;
+        out.writeLong(tick);
+        out.writeInt(count);
+        for (int idx = 0; idx < carts.length; idx++) {
+            if (carts[idx] != null) {
+                out.writeInt(idx);
+                out.writeByte(carts[idx].direction.ordinal());
+                out.writeByte(carts[idx].turnOptionIdx);
             }
         }
+    }
 
-        Track tracks[][] = new Track[maxX][maxY];
-        Log.logInfoMessage("Track dimensions: x - %d, y - %d", maxX, maxY);
-        int x = 0;
-        int y = 0;
-        for (String line : input) {
-            char ch[] = line.toCharArray();
-            for (x = 0; x < ch.length; x++) {
-                if (isCart(ch[x])) {
-                    tracks[x][y] = new Track(cartToTrackType(ch[x]));
-                    tracks[x][y].setCart(new Cart(charToMoveDirection(ch[x])));
-                } else if (isTrackType(ch[x])) {
-                    tracks[x][y] = new Track(charToTrackType(ch[x]));
-                } else {
-                    tracks[x][y] = null;
-                }
+    /**
+     * Puts the carts back where a snapshot written by {@link #writeCarts(DataOutput, long, Cart[])} left them, after the tick.
+     * 
+     * @param in Snapshot
+     * @return Carts, indexed by track cell
+     * @throws IOException If the snapshot can't be read
+     */
+    private Cart[] readCarts(DataInput in) throws IOException {
+        Cart carts[] = new Cart[tracks.size()];
+        MoveDirection directions[] = MoveDirection.values();
+        for (int i = 0, count = in.readInt(); i < count; i++) {
+            int idx = in.readInt();
+            Cart cart = new Cart(directions[in.readByte()]);
+            cart.turnOptionIdx = in.readByte();
+            carts[idx] = cart;
+        }
+        return carts;
+    }
+
+    /**
+     * Moves the carts around until either the first crash happens or there's a single cart left. With checkpoints on, the carts are saved every so many
+     * ticks and the simulation resumes from the last save.
+     * 
+     * @param stopAtFirstCrash True to stop at the first crash
+     * @return Coordinates of the first crash, or of the last cart left, formatted as "x,y"
+     */
+    private String simulate(boolean stopAtFirstCrash) {
+        Checkpoint checkpoint = Checkpoint.open(stopAtFirstCrash ? "day13-part1" : "day13-part2", inputFingerprint, CHECKPOINT_TICKS);
+        Cart carts[] = null;
+        long tick = 0;
+        DataInput snapshot = checkpoint.resume();
+        if (snapshot != null) {
+            try {
+                tick = snapshot.readLong();
+                carts = readCarts(snapshot);
+            } catch (IOException e) {
+                Log.logWarningMessage("Can't resume day 13: %s", e);
             }
-            y++;
+        }
+        if (carts == null) {
+            carts = placeCarts();
+            tick = 0;
         }
 
-        boolean firstCrashFound = false;
-        int crashX = 0;
-        int crashY = 0;
         Cart cart;
-        int newX, newY;
-        int lastCartX = 0;
-        int lastCartY = 0;
-        Set<Cart> tickedCarts = new HashSet<>();
+        int newIdx;
+        int lastCartIdx = 0;
+        long nextCheckpoint = checkpoint.next(tick);
+        // Ids of the carts that already moved this tick, so a cart moving right or down isn't moved twice
+        IntHashSet tickedCarts = new IntHashSet();
         while (tickedCarts.size() != 1) {
-            // printTrackState(tracks, maxX, maxY);
+            if (tick == nextCheckpoint) {
+                long done = tick;
+                Cart saved[] = carts;
+                checkpoint.save(out -> writeCarts(out, done, saved));
+                nextCheckpoint = checkpoint.next(tick);
+            }
+            if (Log.isDebugEnabled()) {
+                printTrackState(tracks, carts);
+            }
             tickedCarts.clear();
-            for (y = 0; y < maxY; y++) {
-                for (x = 0; x < maxX; x++) {
-                    if (tracks[x][y] == null || !tracks[x][y].hasCart()) {
-                        continue;
-                    }
-
-                    cart = tracks[x][y].getCart();
-                    if (tickedCarts.contains(cart)) {
-                        continue;
-                    }
+            ticks.increment();
+            tick++;
+            // Walking the indices in order visits the carts top to bottom, left to right
+            for (int idx = 0, size = carts.length; idx < size; idx++) {
+                cart = carts[idx];
+                if (cart == null || tickedCarts.contains(cart.getId())) {
+                    continue;
+                }
 
-                    // Clear cart from source position
-                    tracks[x][y].clearCart();
-                    cart.updateMoveDirection(tracks[x][y].getType());
-                    newX = x;
-                    newY = y;
-                    switch (cart.getMoveDirection()) {
-                        case DOWN:
-                            newY++;
-                            break;
-                        case LEFT:
-                            newX--;
-                            break;
-                        case RIGHT:
-                            newX++;
-                            break;
-                        case UP:
-                            newY--;
-                            break;
+                // Clear cart from source position
+                carts[idx] = null;
+                cart.updateMoveDirection(TRACK_TYPES[tracks.get(idx) - 1]);
+                newIdx = idx + tracks.offset(cart.getMoveDirection());
+
+                if (carts[newIdx] != null) {
+                    crashes.increment();
+                    // Part 1 answer found
+                    if (stopAtFirstCrash) {
+                        checkpoint.finish();
+                        return String.format("%d,%d", tracks.x(newIdx), tracks.y(newIdx));
                     }
 
-                    if (tracks[newX][newY].hasCart()) {
-                        // Part 1 answer found
-                        if (!firstCrashFound) {
-                            crashX = newX;
-                            crashY = newY;
-                        }
-                        firstCrashFound = true;
-
-                        // Clear the cart our current cart has collided with.
-                        tracks[newX][newY].clearCart();
-                    } else {
-                        // No crash. Update the cart target position at the end of this tick.
-                        tracks[newX][newY].setCart(cart);
-                        lastCartX = newX;
-                        lastCartY = newY;
-                        tickedCarts.add(cart);
-                    }
+                    // Clear the cart our current cart has collided with.
+                    carts[newIdx] = null;
+                } else {
+                    // No crash. Update the cart target position at the end of this tick.
+                    carts[newIdx] = cart;
+                    lastCartIdx = newIdx;
+                    tickedCarts.add(cart.getId());
                 }
             }
         }
+        checkpoint.finish();
+
+        return String.format("%d,%d", tracks.x(lastCartIdx), tracks.y(lastCartIdx));
+    }
+
+    @Override
+    public Object part1() {
+        return simulate(true);
+    }
 
-        Log.logInfoMessage("First crash coordinates: %d,%d", crashX, crashY);
-        Log.logInfoMessage("Last cart coordinates: %d,%d", lastCartX, lastCartY);
+    @Override
+    public Object part2() {
+        return simulate(false);
     }
 
     public static void main(String[] args) throws IOException {
-        new Day013().main();
+        SolverRunner.runAndLog(13, new Day013());
     }
 }
@@ -0,0 +1,227 @@
+package com.catalinionescu.adventofcode.y2018;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.catalinionescu.adventofcode.common.AsciiTokenizer;
+import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.MappedInput;
+import com.catalinionescu.adventofcode.datastructures.AdaptiveLongSet;
+
+/**
+ * Day 1 over a live feed of frequency changes: a file that keeps growing, e.g. a log being appended to. Each {@link #update()} reads only the bytes
+ * appended since the previous one and folds the new changes into what's already known, the running total, the frequencies seen so far and the first
+ * repeat, instead of solving the whole file again the way {@link Day001} does.
+ * <p>
+ * The total and a repeat within the first pass over the changes cost time proportional to the appended data: once a frequency repeats in the first pass,
+ * that's the answer for good, as later changes only come after it. Until then the answer depends on the sum of all the changes, which every new change
+ * moves, so it's worked out again from the frequencies kept in memory when asked for, without reading the file again, and cached until the next update.
+ */
+public class FrequencyFeed {
+    // A mapping can't be larger than this
+    private static final long MAX_MAP_BYTES = 1 << 30;
+    // Largest number of frequencies an array can hold
+    private static final int MAX_SUMS = Integer.MAX_VALUE - 8;
+
+    private final Path file;
+    // Bytes consumed so far, always at a line start
+    private long offset = 0;
+
+    // Frequency before each change, as in Day001, until a repeat is found in the first pass
+    private long start[] = new long[1024];
+    private int changeCount = 0;
+    private long frequency = 0;
+
+    // Frequencies of the first pass seen so far, kept the same way as Day001 does
+    private AdaptiveLongSet seen = new AdaptiveLongSet();
+    // First frequency repeated within the first pass, final once found
+    private Long firstPassRepeat = null;
+    // Repeat in a later pass, valid for the current changes only
+    private Long laterPassRepeat = null;
+    private boolean laterPassKnown = false;
+
+    /**
+     * Creates a feed over a file. Nothing is read until the first update.
+     *
+     * @param file Input file, only ever appended to
+     */
+    public FrequencyFeed(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the complete lines appended to the file since the last update. A last line without a terminator is left for a later update, as it may still be
+     * being written; see {@link #finish()}.
+     *
+     * @return Number of changes read
+     * @throws IOException If the file can't be read, or got shorter
+     */
+    public int update() throws IOException {
+        return read(false);
+    }
+
+    /**
+     * Reads whatever was appended to the file since the last update, a last line without a terminator included, for when the feed is known to be
+     * complete.
+     *
+     * @return Number of changes read
+     * @throws IOException If the file can't be read, or got shorter
+     */
+    public int finish() throws IOException {
+        return read(true);
+    }
+
+    private int read(boolean complete) throws IOException {
+        int before = changeCount;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                throw new IOException(String.format("%s shrank from %d to %d bytes, it can only be appended to", file, offset, size));
+            }
+
+            while (offset < size) {
+                long length = Math.min(size - offset, MAX_MAP_BYTES);
+                ByteBuffer bytes = MappedInput.map(channel, offset, length).buffer();
+                int end = (int) length;
+                if (!complete || offset + length < size) {
+                    // Stop after the last line break, the rest is read with the next piece or update
+                    while (end > 0 && bytes.get(end - 1) != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        if (length == MAX_MAP_BYTES) {
+                            throw new IOException(String.format("Line at offset %d of %s is longer than %d bytes", offset, file, MAX_MAP_BYTES));
+                        }
+                        break;
+                    }
+                }
+
+                AsciiTokenizer tokenizer = new AsciiTokenizer(bytes);
+                tokenizer.reset(0, end);
+                while (tokenizer.hasNextInt()) {
+                    append(tokenizer.nextInt());
+                }
+                offset += end;
+            }
+        }
+
+        if (changeCount > before) {
+            laterPassKnown = false;
+        }
+        return changeCount - before;
+    }
+
+    /**
+     * Applies a new change.
+     *
+     * @param change Frequency change
+     */
+    private void append(int change) {
+        if (firstPassRepeat != null) {
+            // The answer is final, the frequencies aren't needed anymore
+            changeCount++;
+            frequency += change;
+            return;
+        }
+
+        if (changeCount == start.length) {
+            if (changeCount == MAX_SUMS) {
+                throw new IllegalStateException(String.format("More than %d frequency changes are too many to keep", changeCount));
+            }
+            start = Arrays.copyOf(start, (int) Math.min(MAX_SUMS, changeCount * 2L));
+        }
+        start[changeCount++] = frequency;
+
+        if (!seen.add(frequency)) {
+            firstPassRepeat = frequency;
+            start = null;
+            seen = null;
+        }
+        frequency += change;
+    }
+
+    /**
+     * Returns the frequency after all the changes read so far, the answer to part 1.
+     *
+     * @return
+     */
+    public long getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns the number of changes read so far.
+     *
+     * @return
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Returns the first frequency reached twice when the changes read so far are applied over and over, the answer to part 2.
+     * <p>
+     * Once the first pass has a repeat this is free. Until then, the first call after an update runs {@link Day001#laterPassRepeat(long[], int, long)} over
+     * all the changes, O(n log n): frequencies repeat across passes when they're equal modulo the sum of all the changes, and every new change moves that
+     * sum, regrouping all of them, so there's no state to carry over from one update to the next. Calls without an update in between reuse the answer.
+     *
+     * @return Frequency, or null if there are no changes yet or no frequency is ever reached twice
+     */
+    public Long getFirstRepeat() {
+        if (firstPassRepeat != null) {
+            return firstPassRepeat;
+        }
+
+        if (!laterPassKnown) {
+            laterPassRepeat = Day001.laterPassRepeat(start, changeCount, frequency);
+            laterPassKnown = true;
+        }
+        return laterPassRepeat;
+    }
+
+    /**
+     * Follows a feed and logs both answers whenever changes are appended to it.
+     *
+     * @param args [--follow millis] file; without --follow the file is read once, to the end
+     * @throws IOException If the file can't be read
+     * @throws InterruptedException If interrupted while waiting for more changes
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long interval = -1;
+        Path file = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--follow".equals(args[i]) && i + 1 < args.length) {
+                interval = Long.parseLong(args[++i]);
+            } else {
+                file = Paths.get(args[i]);
+            }
+        }
+        if (file == null) {
+            Log.logErrorMessage("Usage: FrequencyFeed [--follow millis] file");
+            return;
+        }
+
+        FrequencyFeed feed = new FrequencyFeed(file);
+        if (interval < 0) {
+            feed.finish();
+            log(feed);
+            return;
+        }
+
+        while (true) {
+            if (feed.update() > 0) {
+                log(feed);
+            }
+            Thread.sleep(interval);
+        }
+    }
+
+    private static void log(FrequencyFeed feed) {
+        Log.logInfoMessage("%d changes, frequency %d, first repeat %s", feed.getChangeCount(), feed.getFrequency(), feed.getFirstRepeat());
+    }
+}
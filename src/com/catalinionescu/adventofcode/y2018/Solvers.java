@@ -0,0 +1,50 @@
+package com.catalinionescu.adventofcode.y2018;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.catalinionescu.adventofcode.common.SolverInfo;
+import com.catalinionescu.adventofcode.common.SolverProvider;
+
+/**
+ * The 2018 solvers. Days go either directly in this package (e.g. Day001) or, for larger puzzles, in their own sub-package (e.g. day015.Day015); a new day
+ * has to be added here to be found by the runners.
+ */
+public class Solvers implements SolverProvider {
+    private static final int YEAR = 2018;
+    private static final String PACKAGE = Solvers.class.getPackageName();
+
+    private final List<SolverInfo> solvers = new ArrayList<>();
+
+    public Solvers() {
+        add(1, "Day001");
+        add(2, "Day002");
+        add(3, "Day003");
+        add(4, "Day004");
+        add(5, "Day005");
+        add(6, "Day006");
+        add(7, "Day007");
+        add(8, "Day008");
+        add(9, "Day009");
+        add(10, "Day010");
+        add(11, "Day011");
+        add(12, "Day012");
+        add(13, "Day013");
+        add(15, "day015.Day015");
+    }
+
+    /**
+     * Adds a solver whose input is checked in as inputs/inputDDD.txt.
+     *
+     * @param day Day of the puzzle
+     * @param className Name of the solver class, relative to this package
+     */
+    private void add(int day, String className) {
+        solvers.add(new SolverInfo(YEAR, day, PACKAGE + "." + className, String.format("inputs/input%03d.txt", day)));
+    }
+
+    @Override
+    public List<SolverInfo> solvers() {
+        return solvers;
+    }
+}
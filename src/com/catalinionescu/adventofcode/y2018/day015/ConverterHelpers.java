@@ -1,10 +1,9 @@
 package com.catalinionescu.adventofcode.y2018.day015;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.catalinionescu.adventofcode.datastructures.IntObjectMap;
 
 public class ConverterHelpers {
-    private static Map<Character, TerrainType> terrainTypes = new HashMap<>();
+    private static IntObjectMap<TerrainType> terrainTypes = new IntObjectMap<>();
     static {
         for (TerrainType type : TerrainType.values()) {
             terrainTypes.put(type.getCh(), type);
@@ -31,7 +30,7 @@ public class ConverterHelpers {
         return terrainTypes.containsKey(ch);
     }
 
-    private static Map<Character, CreatureType> creatureTypes = new HashMap<>();
+    private static IntObjectMap<CreatureType> creatureTypes = new IntObjectMap<>();
     static {
         for (CreatureType type : CreatureType.values()) {
             creatureTypes.put(type.getCh(), type);
@@ -1,33 +1,47 @@
 package com.catalinionescu.adventofcode.y2018.day015;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.catalinionescu.adventofcode.datastructures.Coordinates;
+import com.catalinionescu.adventofcode.datastructures.GraphSearch;
+
 public class Creature implements Comparable<Creature> {
     private final int uuid;
     private CreatureType type;
     private int health;
     private int attackPower;
-    private int x;
-    private int y;
+    // Packed coordinates, which order creatures in reading order
+    private long position;
 
-    private static int uuidGen = 0;
+    // Solvers may run on several threads at once
+    private static final AtomicInteger uuidGen = new AtomicInteger();
 
     public Creature(CreatureType type, int initialHealth, int attackPower) {
         this.type = type;
         health = initialHealth;
         this.attackPower = attackPower;
-        uuid = uuidGen++;
+        uuid = uuidGen.getAndIncrement();
     }
 
     public void setPosition(int x, int y) {
-        this.x = x;
-        this.y = y;
+        position = Coordinates.pack(x, y);
     }
 
     public int getX() {
-        return x;
+        return Coordinates.x(position);
     }
 
     public int getY() {
-        return y;
+        return Coordinates.y(position);
+    }
+
+    /**
+     * Returns the position packed into a single key, see {@link Coordinates}.
+     * 
+     * @return
+     */
+    public long getPosition() {
+        return position;
     }
 
     public CreatureType getType() {
@@ -46,6 +60,74 @@ public class Creature implements Comparable<Creature> {
         foe.health -= attackPower;
     }
 
+    /**
+     * Returns true if the creature on a cell, if any, is a foe.
+     * 
+     * @param map Terrain
+     * @param idx Cell index
+     * @return
+     */
+    private boolean isFoe(TerrainMap map, int idx) {
+        Creature other = map.occupant(idx);
+        return other != null && other.type != type;
+    }
+
+    /**
+     * Picks the foe to attack: of the foes next to this creature, the one with the fewest hit points, first in reading order on a tie. The cave is walled
+     * all around, so creatures are never on its border.
+     * 
+     * @param map Terrain
+     * @return Foe, or null if none is in range
+     */
+    public Creature inAttackRange(TerrainMap map) {
+        int idx = map.index(getX(), getY());
+        Creature target = null;
+        for (int offset : map.grid().neighborOffsets()) {
+            if (isFoe(map, idx + offset) && (target == null || map.occupant(idx + offset).health < target.health)) {
+                target = map.occupant(idx + offset);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Takes one step towards the closest cell next to a foe, first in reading order on a tie, along the shortest path whose first step comes first in
+     * reading order.
+     * 
+     * @param map Terrain
+     * @return True if the creature moved, false if no foe can be reached
+     */
+    public boolean moveToClosestFoe(TerrainMap map) {
+        int from = map.index(getX(), getY());
+        GraphSearch search = map.search();
+        search.bfs(map.graph(), from, -1);
+
+        // Nodes are settled by distance, so the first cell in range of a foe sets the distance and only the cells at that distance are left to look at
+        int destination = -1;
+        int destinationDist = Integer.MAX_VALUE;
+        for (int i = 1, settled = search.settledCount(); i < settled; i++) {
+            int idx = search.settled(i);
+            if (search.distance(idx) > destinationDist) {
+                break;
+            }
+            if (idx < destination || destination < 0) {
+                for (int offset : map.grid().neighborOffsets()) {
+                    if (isFoe(map, idx + offset)) {
+                        destination = idx;
+                        destinationDist = search.distance(idx);
+                        break;
+                    }
+                }
+            }
+        }
+        if (destination < 0) {
+            return false;
+        }
+
+        map.move(this, Path.firstStep(map, from, destination));
+        return true;
+    }
+
     public boolean isDead() {
         return health <= 0;
     }
@@ -70,18 +152,6 @@ public class Creature implements Comparable<Creature> {
 
     @Override
     public int compareTo(Creature o) {
-        if (y < o.y) {
-            return -1;
-        } else if (y > o.y) {
-            return 1;
-        }
-
-        if (x < o.x) {
-            return -1;
-        } else if (x > o.x) {
-            return 1;
-        }
-
-        return 0;
+        return Long.compare(position, o.position);
     }
 }
\ No newline at end of file
@@ -2,27 +2,29 @@ package com.catalinionescu.adventofcode.y2018.day015;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.Iterator;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
 
 import com.catalinionescu.adventofcode.common.Log;
+import com.catalinionescu.adventofcode.common.Solver;
+import com.catalinionescu.adventofcode.common.SolverRunner;
 
-public class Day015 {
-    public static String INPUT_URL = "https://adventofcode.com/2018/day/15/input";
-    public static String INPUT_FILE = "inputs/input015.txt";
-
+public class Day015 implements Solver {
     private static int ATTACK_POWER = 3;
     private static int INITIAL_HEALTH = 200;
 
-    private void main() throws IOException {
-        List<String> input = Files.readAllLines(Paths.get(INPUT_FILE));
+    private TerrainMap map;
+    // Initial creatures, as { type ordinal, cell index } pairs in reading order
+    private int startingCreatures[];
+
+    @Override
+    public void parse(Path inputFile) throws IOException {
+        List<String> input = Files.readAllLines(inputFile);
 
         if (input == null || input.isEmpty()) {
-            Log.logErrorMessage("Input data set is empty!");
-            return;
+            throw new IllegalArgumentException("Input data set is empty!");
         }
 
         int maxX = input.get(0).trim().length();
@@ -30,73 +32,127 @@ public class Day015 {
 
         Log.logInfoMessage("Terrain size: x - %d, y - %d", maxX, maxY);
 
-        TerrainMap map = new TerrainMap(maxX, maxY);
-        Set<Creature> creatures = new TreeSet<>();
+        map = new TerrainMap(maxX, maxY);
 
         int x = 0;
         int y = 0;
         int elvesCount = 0;
         int goblinsCount = 0;
+        List<Integer> creatures = new ArrayList<>();
         // Parse the initial map
         for (String line : input) {
             char ch[] = line.toCharArray();
             for (x = 0; x < ch.length; x++) {
-                if (ConverterHelpers.isCreature(ch[x])) {
-                    map.set(x, y, new TerrainCell(TerrainType.OPEN));
-                    Creature creature = new Creature(ConverterHelpers.charToCreatureType(ch[x]), INITIAL_HEALTH, ATTACK_POWER);
-                    creature.setPosition(x, y);
-                    creatures.add(creature);
-                    if (creature.getType() == CreatureType.ELF) {
+                if (ConverterHelpers.isTerrain(ch[x])) {
+                    map.set(x, y, ConverterHelpers.charToTerrainType(ch[x]));
+                } else if (ConverterHelpers.isCreature(ch[x])) {
+                    map.set(x, y, TerrainType.OPEN);
+                    CreatureType type = ConverterHelpers.charToCreatureType(ch[x]);
+                    creatures.add(type.ordinal());
+                    creatures.add(map.index(x, y));
+                    if (type == CreatureType.ELF) {
                         elvesCount++;
                     } else {
                         goblinsCount++;
                     }
                 }
             }
+            y++;
         }
+        startingCreatures = creatures.stream().mapToInt(Integer::intValue).toArray();
 
         Log.logInfoMessage("Elves: %d, Goblins: %d", elvesCount, goblinsCount);
+    }
+
+    /**
+     * Runs a combat from the initial positions to its end.
+     * 
+     * @param elfAttackPower Attack power of the elves
+     * @param stopAtElfDeath True to give up as soon as an elf dies
+     * @return Outcome, full rounds times the hit points left, or -1 if an elf died and stopAtElfDeath is set
+     */
+    private int fight(int elfAttackPower, boolean stopAtElfDeath) {
+        CreatureType types[] = CreatureType.values();
+        List<Creature> creatures = new ArrayList<>();
+        int alive[] = new int[types.length];
+        map.clearCreatures();
+        for (int i = 0; i < startingCreatures.length; i += 2) {
+            CreatureType type = types[startingCreatures[i]];
+            Creature creature = new Creature(type, INITIAL_HEALTH, type == CreatureType.ELF ? elfAttackPower : ATTACK_POWER);
+            creature.setPosition(map.grid().x(startingCreatures[i + 1]), map.grid().y(startingCreatures[i + 1]));
+            map.place(creature);
+            creatures.add(creature);
+            alive[type.ordinal()]++;
+        }
+
+        int rounds = 0;
         // Combat time!
-        while (elvesCount > 0 && goblinsCount > 0) {
+        while (true) {
+            // Creatures take turns in reading order of where they stand when the round starts
+            Collections.sort(creatures);
             for (Creature creature : creatures) {
                 if (creature.isDead()) {
                     continue;
                 }
 
-                // Get any foes in combat range
-                Creature foe = creature.inAttackRange(creatures);
-                if (foe != null) {
-                    creature.attack(foe);
-                    continue;
+                // Combat ends as soon as a creature finds no foes left, the round isn't a full one
+                if (alive[creature.getType() == CreatureType.ELF ? CreatureType.GOBLIN.ordinal() : CreatureType.ELF.ordinal()] == 0) {
+                    int healthLeft = 0;
+                    for (Creature survivor : creatures) {
+                        if (!survivor.isDead()) {
+                            healthLeft += survivor.getHealth();
+                        }
+                    }
+                    return rounds * healthLeft;
                 }
 
-                // Move to closest foe
-                creature.moveToClosestFoe(creatures);
-            }
+                // Get any foes in combat range, or move closer and try again
+                Creature foe = creature.inAttackRange(map);
+                if (foe == null && creature.moveToClosestFoe(map)) {
+                    foe = creature.inAttackRange(map);
+                }
+                if (foe == null) {
+                    continue;
+                }
 
-            // Cleanup dead creatures and count the living based off their type
-            Iterator<Creature> iter = creatures.iterator();
-            elvesCount = 0;
-            goblinsCount = 0;
-            while (iter.hasNext()) {
-                Creature creature = iter.next();
-                if (creature.isDead()) {
-                    iter.remove();
-                } else {
-                    switch (creature.getType()) {
-                        case ELF:
-                            elvesCount++;
-                            break;
-                        case GOBLIN:
-                            goblinsCount++;
-                            break;
+                creature.attack(foe);
+                if (foe.isDead()) {
+                    map.remove(foe);
+                    alive[foe.getType().ordinal()]--;
+                    if (stopAtElfDeath && foe.getType() == CreatureType.ELF) {
+                        return -1;
                     }
                 }
             }
+
+            // Cleanup dead creatures
+            creatures.removeIf(Creature::isDead);
+            rounds++;
+        }
+    }
+
+    @Override
+    public Object part1() {
+        return fight(ATTACK_POWER, false);
+    }
+
+    @Override
+    public Object part2() {
+        // The answer is the outcome of the weakest attack power that lets the elves win without a single loss. From INITIAL_HEALTH on every hit kills, so
+        // if the elves still lose someone there, more power won't save them
+        for (int attackPower = ATTACK_POWER + 1; attackPower <= INITIAL_HEALTH; attackPower++) {
+            int outcome = fight(attackPower, true);
+            if (outcome >= 0) {
+                Log.logDebugMessage("Elves win with attack power %d", attackPower);
+                return outcome;
+            }
         }
+
+        Log.logInfoMessage("Elves can't win without losses, even killing with every hit");
+        return null;
     }
 
     public static void main(String[] args) throws IOException {
-        new Day015().main();
+        SolverRunner.runAndLog(15, new Day015());
     }
 }
@@ -1,20 +1,104 @@
 package com.catalinionescu.adventofcode.y2018.day015;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
+import com.catalinionescu.adventofcode.datastructures.GraphSearch;
+import com.catalinionescu.adventofcode.datastructures.GridGraph;
 import com.catalinionescu.adventofcode.datastructures.MoveDirection;
 
 public class Path implements Comparable<Path> {
-    private List<MoveDirection> path = new LinkedList<>();
+    private List<MoveDirection> path = new ArrayList<>();
 
     public int getCost() {
         return path.size();
     }
 
+    /**
+     * Returns the moves of this path, in order.
+     *
+     * @return
+     */
+    public List<MoveDirection> getSteps() {
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Finds the first move of a shortest path through free cells. Of several shortest paths, the one whose first move lands first in reading order wins.
+     * Leaves the search holding the distances to the target.
+     *
+     * @param map Terrain
+     * @param source Index of the start cell, which needn't be free
+     * @param target Index of the destination cell, free
+     * @return Index of the cell to move to, or -1 if the target can't be reached
+     */
+    static int firstStep(TerrainMap map, int source, int target) {
+        GraphSearch search = map.search();
+        GridGraph graph = map.graph();
+        // Distances back from the target tell which neighbor is on a shortest path
+        search.bfs(graph, target, -1);
+
+        int step = -1;
+        int stepDist = Integer.MAX_VALUE;
+        for (int edge = graph.edgeStart(source), end = graph.edgeEnd(source); edge < end; edge++) {
+            int next = graph.target(source, edge);
+            if (next >= 0 && search.isReached(next) && search.distance(next) < stepDist) {
+                step = next;
+                stepDist = search.distance(next);
+            }
+        }
+        return step;
+    }
+
+    /**
+     * Builds a shortest path through free cells. Of several shortest paths, the one whose moves come first in reading order wins, move by move.
+     *
+     * @param map Terrain
+     * @param sourceX X coordinate of the start cell, which needn't be free
+     * @param sourceY Y coordinate of the start cell
+     * @param targetX X coordinate of the destination cell, free
+     * @param targetY Y coordinate of the destination cell
+     * @return Path, or null if the destination can't be reached
+     */
     public static Path buildPath(TerrainMap map, int sourceX, int sourceY, int targetX, int targetY) {
-        return new Path();
+        int source = map.index(sourceX, sourceY);
+        int target = map.index(targetX, targetY);
+        Path result = new Path();
+        if (source == target) {
+            return result;
+        }
+
+        int current = source;
+        int next = firstStep(map, source, target);
+        if (next < 0) {
+            return null;
+        }
+
+        // The search still holds the distances to the target, every further move goes one closer
+        GraphSearch search = map.search();
+        GridGraph graph = map.graph();
+        while (true) {
+            for (int edge = graph.edgeStart(current), end = graph.edgeEnd(current); edge < end; edge++) {
+                if (graph.target(current, edge) == next) {
+                    result.path.add(graph.direction(edge));
+                    break;
+                }
+            }
+            if (next == target) {
+                return result;
+            }
+
+            current = next;
+            for (int edge = graph.edgeStart(current), end = graph.edgeEnd(current); edge < end; edge++) {
+                int candidate = graph.target(current, edge);
+                if (candidate >= 0 && search.distance(candidate) == search.distance(current) - 1) {
+                    next = candidate;
+                    break;
+                }
+            }
+        }
     }
 
     @Override
@@ -25,7 +109,7 @@ public class Path implements Comparable<Path> {
 
         Iterator<MoveDirection> i1 = path.iterator();
         Iterator<MoveDirection> i2 = o.path.iterator();
-        int result = -1;
+        int result = 0;
         while (i1.hasNext() && i2.hasNext() && result == 0) {
             MoveDirection d1 = i1.next();
             MoveDirection d2 = i2.next();
@@ -34,4 +118,4 @@ public class Path implements Comparable<Path> {
 
         return result;
     }
-}
\ No newline at end of file
+}
@@ -1,13 +0,0 @@
-package com.catalinionescu.adventofcode.y2018.day015;
-
-public class TerrainCell {
-    private TerrainType type;
-
-    public TerrainCell(TerrainType type) {
-        this.type = type;
-    }
-
-    public TerrainType getType() {
-        return type;
-    }
-}
\ No newline at end of file
@@ -1,29 +1,141 @@
 package com.catalinionescu.adventofcode.y2018.day015;
 
+import java.util.Arrays;
+
+import com.catalinionescu.adventofcode.datastructures.ByteGrid;
+import com.catalinionescu.adventofcode.datastructures.GraphSearch;
+import com.catalinionescu.adventofcode.datastructures.GridGraph;
+
+/**
+ * The cave terrain, one byte per cell holding the terrain type ordinal, and the creatures standing on it. Creatures only move through free cells, open and
+ * not taken by another creature; {@link #graph()} and {@link #search()} find their way through those.
+ */
 public class TerrainMap {
-    private final TerrainCell terrain[][];
-    private final int width;
-    private final int height;
+    private static final TerrainType TYPES[] = TerrainType.values();
+
+    private final ByteGrid terrain;
+    // Creature standing on each cell, if any
+    private final Creature occupants[];
+    private final GridGraph graph;
+    private final GraphSearch search = new GraphSearch();
 
     public TerrainMap(int width, int height) {
-        this.width = width;
-        this.height = height;
-        terrain = new TerrainCell[width][height];
+        terrain = new ByteGrid(width, height);
+        // Anything the input doesn't cover is out of reach
+        terrain.fill((byte) TerrainType.WALL.ordinal());
+        occupants = new Creature[width * height];
+        graph = new GridGraph(terrain, this::isFree);
     }
 
     public int getWidth() {
-        return width;
+        return terrain.getWidth();
     }
 
     public int getHeight() {
-        return height;
+        return terrain.getHeight();
+    }
+
+    public TerrainType get(int x, int y) {
+        return TYPES[terrain.get(x, y)];
+    }
+
+    public TerrainType get(int idx) {
+        return TYPES[terrain.get(idx)];
+    }
+
+    public void set(int x, int y, TerrainType value) {
+        terrain.set(x, y, (byte) value.ordinal());
+    }
+
+    public boolean isOpen(int idx) {
+        return terrain.get(idx) == TerrainType.OPEN.ordinal();
+    }
+
+    public int index(int x, int y) {
+        return terrain.index(x, y);
+    }
+
+    /**
+     * Returns true if a creature can step on a cell: it's open and no other creature stands there.
+     * 
+     * @param idx Cell index
+     * @return
+     */
+    public boolean isFree(int idx) {
+        return isOpen(idx) && occupants[idx] == null;
+    }
+
+    /**
+     * Returns the creature standing on a cell.
+     * 
+     * @param idx Cell index
+     * @return Creature, or null
+     */
+    public Creature occupant(int idx) {
+        return occupants[idx];
+    }
+
+    /**
+     * Puts a creature on the cell of its position.
+     * 
+     * @param creature Creature
+     */
+    public void place(Creature creature) {
+        occupants[index(creature.getX(), creature.getY())] = creature;
+    }
+
+    /**
+     * Moves a creature to another cell.
+     * 
+     * @param creature Creature
+     * @param idx Index of the destination cell
+     */
+    public void move(Creature creature, int idx) {
+        occupants[index(creature.getX(), creature.getY())] = null;
+        occupants[idx] = creature;
+        creature.setPosition(terrain.x(idx), terrain.y(idx));
+    }
+
+    /**
+     * Takes a creature off the map.
+     * 
+     * @param creature Creature
+     */
+    public void remove(Creature creature) {
+        occupants[index(creature.getX(), creature.getY())] = null;
+    }
+
+    /**
+     * Takes all creatures off the map.
+     */
+    public void clearCreatures() {
+        Arrays.fill(occupants, null);
+    }
+
+    /**
+     * Returns the free cells as a graph, neighbors in reading order.
+     * 
+     * @return
+     */
+    public GridGraph graph() {
+        return graph;
     }
 
-    public TerrainCell get(int x, int y) {
-        return terrain[x][y];
+    /**
+     * Returns the search buffers shared by everything moving on this map.
+     * 
+     * @return
+     */
+    public GraphSearch search() {
+        return search;
     }
 
-    public void set(int x, int y, TerrainCell value) {
-        terrain[x][y] = value;
+    /**
+     * Returns the underlying grid, for code that walks the terrain by cell index.
+     * 
+     * @return
+     */
+    public ByteGrid grid() {
+        return terrain;
     }
-}
\ No newline at end of file
+}